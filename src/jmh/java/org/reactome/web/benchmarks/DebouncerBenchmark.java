@@ -0,0 +1,102 @@
+package org.reactome.web.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactome.web.widgets.search.AdaptiveDebouncePolicy;
+import org.reactome.web.widgets.search.Debouncer;
+import org.reactome.web.widgets.search.FixedDebouncePolicy;
+
+/**
+ * Measures the search box debounce decisions for a burst of
+ * keystrokes followed by the timer firing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DebouncerBenchmark {
+
+    /**
+     * A timer which runs only when told to.
+     */
+    private static class ManualTimer implements Debouncer.Timer {
+        private boolean isRunning;
+
+        @Override
+        public void schedule(int delay) {
+            this.isRunning = true;
+        }
+
+        @Override
+        public void cancel() {
+            this.isRunning = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return this.isRunning;
+        }
+
+    }
+
+    private static final String TERM = "mitochondrial membrane";
+
+    private String[] prefixes;
+
+    private ManualTimer timer;
+
+    private Debouncer fixed;
+
+    private Debouncer adaptive;
+
+    private AdaptiveDebouncePolicy adaptivePolicy;
+
+    @Setup
+    public void setUp() {
+        this.prefixes = new String[TERM.length()];
+        for (int i = 0; i < this.prefixes.length; i++) {
+            this.prefixes[i] = TERM.substring(0, i + 1);
+        }
+        this.timer = new ManualTimer();
+        this.fixed = new Debouncer(new FixedDebouncePolicy(250, 3), this.timer);
+        this.adaptivePolicy = new AdaptiveDebouncePolicy();
+        this.adaptive = new Debouncer(this.adaptivePolicy, this.timer);
+    }
+
+    @Benchmark
+    public void fixedBurst(Blackhole blackhole) {
+        burst(this.fixed, blackhole);
+    }
+
+    @Benchmark
+    public void adaptiveBurst(Blackhole blackhole) {
+        long time = 0;
+        for (String prefix : this.prefixes) {
+            time += 120;
+            this.adaptivePolicy.onInput(time);
+            blackhole.consume(this.adaptive.check(prefix));
+        }
+        this.timer.cancel();
+        blackhole.consume(this.adaptive.check(TERM));
+        this.adaptive.flush(null);
+    }
+
+    private void burst(Debouncer debouncer, Blackhole blackhole) {
+        for (String prefix : this.prefixes) {
+            blackhole.consume(debouncer.check(prefix));
+        }
+        // The timer fires after the quiet period.
+        this.timer.cancel();
+        blackhole.consume(debouncer.check(TERM));
+        // Reset for the next burst.
+        debouncer.flush(null);
+    }
+
+}
@@ -0,0 +1,47 @@
+package org.reactome.web.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactome.web.widgets.paging.PageMath;
+
+/**
+ * Measures the pager arithmetic evaluated on every page change and
+ * pager text update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PageMathBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int ROW_COUNT = 123457;
+
+    private int start;
+
+    @Benchmark
+    public void pageChange(Blackhole blackhole) {
+        this.start = (this.start + PAGE_SIZE) % ROW_COUNT;
+        int start = this.start;
+        blackhole.consume(PageMath.getPage(start, PAGE_SIZE));
+        blackhole.consume(PageMath.getPageLength(start, PAGE_SIZE, ROW_COUNT, true, true));
+        blackhole.consume(PageMath.getPageEnd(start + 1, PAGE_SIZE, ROW_COUNT));
+        blackhole.consume(PageMath.hasNextPage(start, PAGE_SIZE, ROW_COUNT, true));
+        blackhole.consume(PageMath.hasNextPages(start, 3, PAGE_SIZE, ROW_COUNT));
+        blackhole.consume(PageMath.hasPreviousPages(start, 3, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public int lastPageStart() {
+        this.start = (this.start + 1) % ROW_COUNT;
+        return PageMath.getLastPageStart(this.start, PAGE_SIZE);
+    }
+
+}
@@ -0,0 +1,130 @@
+package org.reactome.web.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactome.web.widgets.search.RowStore;
+import org.reactome.web.widgets.search.SearchParameters;
+import org.reactome.web.widgets.search.SearchResult;
+import org.reactome.web.widgets.search.SearchResultCache;
+import org.reactome.web.widgets.search.Suggestion;
+
+/**
+ * Measures the search data provider row store and the cross-term
+ * result cache lookups under large result sets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchCacheBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000"})
+    public int rowCount;
+
+    private RowStore<String> store;
+
+    /**
+     * The page starts visited in a random order.
+     */
+    private int[] starts;
+
+    private int next;
+
+    private SearchResultCache resultCache;
+
+    private SearchParameters[] parameters;
+
+    @Setup
+    public void setUp() {
+        // Hold every other page, so that lookups hit and miss.
+        this.store = new RowStore<String>(this.rowCount);
+        List<Integer> starts = new ArrayList<Integer>();
+        for (int start = 0; start < this.rowCount; start += PAGE_SIZE) {
+            if (start / PAGE_SIZE % 2 == 0) {
+                this.store.put(start, page(start));
+            }
+            starts.add(start);
+        }
+        Collections.shuffle(starts, new Random(42));
+        this.starts = new int[starts.size()];
+        for (int i = 0; i < this.starts.length; i++) {
+            this.starts[i] = starts.get(i);
+        }
+        this.resultCache = new SearchResultCache();
+        this.parameters = new SearchParameters[2 * SearchResultCache.DEF_MAX_ENTRIES];
+        for (int i = 0; i < this.parameters.length; i++) {
+            this.parameters[i] = new SearchParameters("term " + i, 0, PAGE_SIZE);
+            if (i % 2 == 0) {
+                this.resultCache.put(this.parameters[i], new Result());
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> storeGet() {
+        return this.store.get(nextStart(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<RowStore.Segment<String>> storeSegment() {
+        // A range which straddles a held and a missing page.
+        return this.store.segment(nextStart() + PAGE_SIZE / 2, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public void storePutWithEviction(Blackhole blackhole) {
+        RowStore<String> store = new RowStore<String>(10 * PAGE_SIZE);
+        for (int i = 0; i < 100; i++) {
+            store.put(this.starts[i], page(this.starts[i]));
+        }
+        blackhole.consume(store.getRowCount());
+    }
+
+    @Benchmark
+    public SearchResult resultCacheGet() {
+        this.next = (this.next + 1) % this.parameters.length;
+        return this.resultCache.get(this.parameters[this.next]);
+    }
+
+    private int nextStart() {
+        this.next = (this.next + 1) % this.starts.length;
+        return this.starts[this.next];
+    }
+
+    private static List<String> page(int start) {
+        List<String> rows = new ArrayList<String>(PAGE_SIZE);
+        for (int i = start; i < start + PAGE_SIZE; i++) {
+            rows.add("row " + i);
+        }
+        return rows;
+    }
+
+    private static class Result implements SearchResult {
+
+        @Override
+        public Integer getNumFound() {
+            return 0;
+        }
+
+        @Override
+        public List<Suggestion> getEntries() {
+            return Collections.emptyList();
+        }
+
+    }
+
+}
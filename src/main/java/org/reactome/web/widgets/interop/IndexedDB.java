@@ -0,0 +1,73 @@
+package org.reactome.web.widgets.interop;
+
+import jsinterop.annotations.JsFunction;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsProperty;
+import jsinterop.annotations.JsType;
+
+/**
+ * The subset of the browser IndexedDB API used by the persistent
+ * search result cache.
+ */
+public class IndexedDB {
+
+    private IndexedDB() {
+    }
+
+    /**
+     * An IndexedDB event handler.
+     */
+    @JsFunction
+    public interface Handler {
+        void handle(Object event);
+    }
+
+    /**
+     * @return the browser IndexedDB factory, or null if IndexedDB
+     *      is not supported
+     */
+    @JsProperty(namespace = JsPackage.GLOBAL, name = "indexedDB")
+    public static native Factory getFactory();
+
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "IDBFactory")
+    public static class Factory {
+        public native OpenRequest open(String name, int version);
+    }
+
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "IDBRequest")
+    public static class Request {
+        public Object result;
+        public Handler onsuccess;
+        public Handler onerror;
+    }
+
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "IDBOpenDBRequest")
+    public static class OpenRequest extends Request {
+        public Handler onupgradeneeded;
+        public Handler onblocked;
+    }
+
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "IDBDatabase")
+    public static class Database {
+        public Handler onversionchange;
+        public native ObjectStore createObjectStore(String name);
+        public native Transaction transaction(String storeName, String mode);
+        public native void close();
+    }
+
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "IDBTransaction")
+    public static class Transaction {
+        public Handler oncomplete;
+        public Handler onerror;
+        public native ObjectStore objectStore(String name);
+    }
+
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "IDBObjectStore")
+    public static class ObjectStore {
+        public native Request get(String key);
+        public native Request put(Object value, String key);
+        public native Request delete(String key);
+        public native Request clear();
+    }
+
+}
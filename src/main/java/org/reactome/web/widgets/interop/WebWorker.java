@@ -0,0 +1,90 @@
+package org.reactome.web.widgets.interop;
+
+import jsinterop.annotations.JsFunction;
+import jsinterop.annotations.JsOverlay;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsProperty;
+import jsinterop.annotations.JsType;
+
+/**
+ * The browser Web Worker API and the messages exchanged with the
+ * search worker script.
+ */
+@JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Worker")
+public class WebWorker {
+
+    /**
+     * A message event handler.
+     */
+    @JsFunction
+    public interface MessageHandler {
+        void handle(MessageEvent event);
+    }
+
+    /**
+     * An error event handler.
+     */
+    @JsFunction
+    public interface ErrorHandler {
+        void handle(Object event);
+    }
+
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "MessageEvent")
+    public static class MessageEvent {
+        public Object data;
+    }
+
+    /**
+     * A search request or cancellation posted to the worker.
+     */
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+    public static class SearchMessage {
+        public int id;
+        public String term;
+        public int start;
+        public Double size;
+        public String cursor;
+        public boolean exactCount;
+        public boolean cancel;
+    }
+
+    /**
+     * A search response posted by the worker, which is a search result
+     * object as viewed by {@code JsSearchResult} with the request id,
+     * or the request id and an error.
+     */
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+    public static class ResultMessage {
+        public int id;
+        public String error;
+    }
+
+    public MessageHandler onmessage;
+
+    public ErrorHandler onerror;
+
+    /**
+     * @param url the worker script URL
+     */
+    public WebWorker(String url) {
+    }
+
+    public native void postMessage(Object message);
+
+    public native void terminate();
+
+    /**
+     * @return whether the browser supports Web Workers
+     */
+    @JsOverlay
+    public static boolean isSupported() {
+        return getConstructor() != null;
+    }
+
+    /**
+     * @return the global Worker constructor, or null if there is none
+     */
+    @JsProperty(namespace = JsPackage.GLOBAL, name = "Worker")
+    public static native Object getConstructor();
+
+}
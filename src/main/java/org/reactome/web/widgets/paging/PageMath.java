@@ -0,0 +1,110 @@
+package org.reactome.web.widgets.paging;
+
+/**
+ * The page arithmetic used by {@link Pager}. Every page starts on a
+ * page size boundary, and the last page holds only the remaining rows.
+ *
+ * This class does not depend on GWT.
+ */
+public class PageMath {
+
+    private PageMath() {
+    }
+
+    /**
+     * @param start the page start row
+     * @param pageSize the page size
+     * @return the page index
+     */
+    public static int getPage(int start, int pageSize) {
+        return (start + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * Returns the visible range length of the page which starts at
+     * the given row. If the row count is exact and the range is
+     * limited, then the length is truncated to the last row.
+     *
+     * @param start the page start row
+     * @param pageSize the page size
+     * @param rowCount the row count
+     * @param isRowCountExact whether the row count is exact
+     * @param isRangeLimited whether the page is limited to the row count
+     * @return the page length
+     */
+    public static int getPageLength(int start, int pageSize, int rowCount,
+            boolean isRowCountExact, boolean isRangeLimited) {
+        if (isRangeLimited && isRowCountExact) {
+            return Math.min(pageSize, rowCount - start);
+        }
+        return pageSize;
+    }
+
+    /**
+     * @param rowCount the row count
+     * @param pageSize the page size
+     * @return the start row of the last page, which is the row count
+     *      minus the rows on the last page
+     */
+    public static int getLastPageStart(int rowCount, int pageSize) {
+        if (rowCount <= 0) {
+            return 0;
+        }
+        return (rowCount - 1) / pageSize * pageSize;
+    }
+
+    /**
+     * @param start the page start row
+     * @param pageSize the page size
+     * @param rowCount the row count
+     * @param isRowCountExact whether the row count is exact
+     * @return whether there is a page after the page at the given start
+     */
+    public static boolean hasNextPage(int start, int pageSize, int rowCount,
+            boolean isRowCountExact) {
+        if (rowCount == 0) {
+            return false;
+        } else if (!isRowCountExact) {
+            return true;
+        }
+        return start + pageSize < rowCount;
+    }
+
+    /**
+     * @param start the page start row
+     * @param pages the number of following pages
+     * @param pageSize the page size
+     * @param rowCount the row count
+     * @return whether there are the given number of pages after the
+     *      page at the given start
+     */
+    public static boolean hasNextPages(int start, int pages, int pageSize, int rowCount) {
+        return start + pages * pageSize < rowCount;
+    }
+
+    /**
+     * @param start the page start row
+     * @param pages the number of preceding pages
+     * @param pageSize the page size
+     * @return whether there are the given number of pages before the
+     *      page at the given start
+     */
+    public static boolean hasPreviousPages(int start, int pages, int pageSize) {
+        return (pages - 1) * pageSize < start;
+    }
+
+    /**
+     * Returns the one-based last displayed row number of the page
+     * which starts at the given one-based row number.
+     *
+     * @param pageStart the one-based page start row number
+     * @param pageSize the page size
+     * @param rowCount the row count
+     * @return the one-based page end row number
+     */
+    public static int getPageEnd(int pageStart, int pageSize, int rowCount) {
+        int end = Math.min(rowCount, pageStart + pageSize - 1);
+        return Math.max(pageStart, end);
+    }
+
+}
@@ -1,5 +1,7 @@
 package org.reactome.web.widgets.paging;
 
+import java.util.function.Consumer;
+
 import com.google.gwt.i18n.client.NumberFormat;
 import com.google.gwt.user.cellview.client.SimplePager;
 import com.google.gwt.view.client.HasRows;
@@ -23,6 +25,14 @@ import com.google.gwt.view.client.Range;
  * page size arguably results in more intuitive and conventional
  * paging behaviour.
  * 
+ * The page arithmetic is delegated to {@link PageMath}.
+ *
+ * If the display row count is inexact, e.g. an estimate, then the
+ * last page button runs the row count request set by
+ * {@link #setRowCountRequest(Consumer)}, if any, and moves to the
+ * last page when the exact row count arrives. If the request fails,
+ * then the pager moves to the last page of the inexact row count.
+ *
  * This implementation adapts the "last page" work-around of the
  * PathwayBrowser
  * <code>org.reactome.web.pwp.client.details.tabs.analysis.widgets.common.CustomPager</code>
@@ -34,6 +44,14 @@ public class Pager extends SimplePager {
 
     private int pageSize;
 
+    private Consumer<Runnable> rowCountRequest;
+
+    /**
+     * Whether the pager moves to the last page when the exact row
+     * count arrives.
+     */
+    private boolean isLastPagePending;
+
     /**
      * Creates the pager. Unlike the superclass no-arugment constructor,
      * this implementation shows the last page button and hides the fast
@@ -70,6 +88,19 @@ public class Pager extends SimplePager {
         super.setPageSize(pageSize);
     }
 
+    /**
+     * Sets the action which requests the exact row count, e.g.
+     * {@link org.reactome.web.widgets.search.SearchDataProvider#requestExactCount(Runnable)}.
+     * The action receives a fallback to run if the exact row count
+     * cannot be obtained.
+     *
+     * @param rowCountRequest the exact row count request, or null
+     *      to page to the inexact last page
+     */
+    public void setRowCountRequest(Consumer<Runnable> rowCountRequest) {
+        this.rowCountRequest = rowCountRequest;
+    }
+
     /**
      * Overrides {@link SimplePager#setPageStart(int)} to set the page
      * start to the specified index. The superclass implementation
@@ -81,31 +112,77 @@ public class Pager extends SimplePager {
      */
     @Override
     public void setPageStart(int index) {
+        this.isLastPagePending = false;
         HasRows display = getDisplay();
         if (display != null) {
             Range range = display.getVisibleRange();
             if (index != range.getStart()) {
-                int len;
-                if (isRangeLimited() && display.isRowCountExact()) {
-                    len = Math.min(pageSize, display.getRowCount() - index);
-                } else {
-                    len = pageSize;
-                }
+                int len = PageMath.getPageLength(index, pageSize,
+                        display.getRowCount(), display.isRowCountExact(), isRangeLimited());
                 display.setVisibleRange(index, len);
             }
         }
     }
 
     /**
-     * Set the page start to the total row count minus the remainder of
-     * the total row count divided by the page size.
+     * Go to the last page as {@link #lastPageStart()} does, rather than
+     * setting the superclass full page range.
+     */
+    @Override
+    public void lastPage() {
+        lastPageStart();
+    }
+
+    /**
+     * Set the page start to the total row count minus the rows on
+     * the last page. If the row count is inexact and there is a row
+     * count request, then the page start is set when the exact row
+     * count arrives, or on the inexact row count if the request
+     * fails.
      */
     @Override
     public void lastPageStart() {
         HasRows display = getDisplay();
         if (display != null) {
-            setPageStart(display.getRowCount() % getPageSize());
+            if (!display.isRowCountExact() && this.rowCountRequest != null) {
+                this.isLastPagePending = true;
+                this.rowCountRequest.accept(() -> {
+                    // Moving to another page cancels the fallback.
+                    if (this.isLastPagePending) {
+                        this.isLastPagePending = false;
+                        setLastPageStart();
+                    }
+                });
+                return;
+            }
+            setLastPageStart();
+        }
+    }
+
+    /**
+     * Set the page start to the last page of the display row count,
+     * whether or not the count is exact.
+     */
+    private void setLastPageStart() {
+        HasRows display = getDisplay();
+        if (display != null) {
+            setPageStart(PageMath.getLastPageStart(display.getRowCount(), getPageSize()));
+        }
+    }
+
+    /**
+     * Moves to the pending last page when the exact row count
+     * arrives. Moving to another page in the meantime cancels the
+     * pending move.
+     */
+    @Override
+    protected void onRangeOrRowCountChanged() {
+        HasRows display = getDisplay();
+        if (this.isLastPagePending && display != null && display.isRowCountExact()) {
+            this.isLastPagePending = false;
+            lastPageStart();
         }
+        super.onRangeOrRowCountChanged();
     }
 
     /**
@@ -120,9 +197,7 @@ public class Pager extends SimplePager {
         if (display == null) {
             return -1;
         }
-        Range range = display.getVisibleRange();
-        int pageSize = getPageSize();
-        return (range.getStart() + pageSize - 1) / pageSize;
+        return PageMath.getPage(display.getVisibleRange().getStart(), getPageSize());
     }
 
     /**
@@ -159,12 +234,11 @@ public class Pager extends SimplePager {
     @Override
     public boolean hasNextPage() {
         HasRows display = getDisplay();
-        if (display == null || display.getRowCount() == 0) {
+        if (display == null) {
             return false;
-        } else if (!display.isRowCountExact()) {
-            return true;
         }
-        return getPageStart() + getPageSize() < display.getRowCount();
+        return PageMath.hasNextPage(getPageStart(), getPageSize(),
+                display.getRowCount(), display.isRowCountExact());
     }
 
     /**
@@ -180,7 +254,8 @@ public class Pager extends SimplePager {
         if (display == null) {
             return false;
         }
-        return getPageStart() + pages * getPageSize() < display.getRowCount();
+        return PageMath.hasNextPages(getPageStart(), pages, getPageSize(),
+                display.getRowCount());
     }
 
     /**
@@ -196,7 +271,7 @@ public class Pager extends SimplePager {
         if (display == null) {
             return false;
         }
-        return (pages - 1) * getPageSize() < getPageStart();
+        return PageMath.hasPreviousPages(getPageStart(), pages, getPageSize());
     }
 
     /**
@@ -225,8 +300,7 @@ public class Pager extends SimplePager {
         //   intended page size is captured in the pageSize field.
         //int pageSize = range.getLength();
         int dataSize = display.getRowCount();
-        int endIndex = Math.min(dataSize, pageStart + pageSize - 1);
-        endIndex = Math.max(pageStart, endIndex);
+        int endIndex = PageMath.getPageEnd(pageStart, pageSize, dataSize);
         boolean exact = display.isRowCountExact();
         if (dataSize == 0) {
             return "0 of 0";
@@ -0,0 +1,349 @@
+package org.reactome.web.widgets.rest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.fusesource.restygwt.client.Method;
+import org.fusesource.restygwt.client.Resource;
+import org.fusesource.restygwt.client.TextCallback;
+import org.reactome.web.widgets.search.BasicSuggestion;
+import org.reactome.web.widgets.search.ColumnarSearchResult;
+import org.reactome.web.widgets.search.JsSearchResult;
+import org.reactome.web.widgets.search.SearchParameters;
+import org.reactome.web.widgets.search.SearchRequest;
+import org.reactome.web.widgets.search.SearchResult;
+import org.reactome.web.widgets.search.Searcher;
+import org.reactome.web.widgets.search.Suggestion;
+
+import com.github.nmorel.gwtjackson.client.ObjectMapper;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.http.client.Request;
+import com.google.gwt.http.client.RequestCallback;
+import com.google.gwt.http.client.Response;
+import com.google.gwt.safehtml.shared.UriUtils;
+
+/**
+ * A {@link Searcher} which calls a REST search service with RestyGWT
+ * and decodes the JSON response in the {@link Format} set by
+ * {@link #setFormat(Format)}. The search parameters are sent as the
+ * <code>term</code>, <code>start</code>, <code>size</code> and, if
+ * set, <code>cursor</code> query parameters of the service URL. If
+ * the parameters do not require an exact count, then the
+ * <code>count=false</code> query parameter is added. A subclass can
+ * map the parameters differently by overriding
+ * {@link #getResource(SearchParameters)}.
+ *
+ * The searcher remembers the ETag of the most recent responses, and
+ * revalidates a repeated query with an <code>If-None-Match</code>
+ * header. A <code>304 Not Modified</code> response reuses the
+ * remembered result without transferring or decoding the body.
+ * Response compression is negotiated by the browser, which sends the
+ * <code>Accept-Encoding</code> header and decompresses transparently.
+ *
+ * A request which fails, times out or cannot be decoded completes
+ * with the {@link SearchResult#FAILED} result, so that the
+ * {@link org.reactome.web.widgets.search.SearchScheduler} is not
+ * blocked and the failure is not cached.
+ *
+ * The searcher is in the <code>org.reactome.web.WidgetsRest</code>
+ * GWT module, which adds the RestyGWT module to the widgets module.
+ */
+public class RestSearcher implements Searcher {
+
+    /**
+     * The default request timeout in milliseconds.
+     */
+    public static final int DEF_TIMEOUT = 10000;
+
+    /**
+     * The default maximum number of remembered ETags.
+     */
+    public static final int DEF_MAX_VALIDATORS = 200;
+
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
+    private static final String ETAG = "ETag";
+
+    /**
+     * The response format and decoding.
+     */
+    public enum Format {
+
+        /**
+         * The result JSON viewed in place by a {@link JsSearchResult}.
+         */
+        OVERLAY,
+
+        /**
+         * The result JSON copied into a {@link SearchResponse} bean by
+         * gwt-jackson.
+         */
+        JACKSON,
+
+        /**
+         * The columnar page viewed in place by a
+         * {@link ColumnarSearchResult}.
+         */
+        COLUMNAR
+
+    }
+
+    public interface SearchResponseMapper extends ObjectMapper<SearchResponse> {}
+
+    private static class Validated {
+        private final String etag;
+        private final SearchResult result;
+
+        private Validated(String etag, SearchResult result) {
+            this.etag = etag;
+            this.result = result;
+        }
+    }
+
+    private final String url;
+
+    private SearchResponseMapper mapper;
+
+    private final Map<String, Validated> validated;
+
+    private int timeout = DEF_TIMEOUT;
+
+    private Format format = Format.OVERLAY;
+
+    /**
+     * @param url the search service URL
+     */
+    public RestSearcher(String url) {
+        this(url, DEF_MAX_VALIDATORS);
+    }
+
+    /**
+     * @param url the search service URL
+     * @param maxValidators the maximum number of remembered ETags
+     */
+    public RestSearcher(String url, final int maxValidators) {
+        this.url = url;
+        this.validated = new LinkedHashMap<String, Validated>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Validated> eldest) {
+                return size() > maxValidators;
+            }
+
+        };
+    }
+
+    /**
+     * @param timeout the request timeout in milliseconds, or zero for
+     *      no timeout
+     */
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param format the response format, by default
+     *      {@link Format#OVERLAY}. The service must support the
+     *      {@link Format#COLUMNAR} format if it is set.
+     */
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    @Override
+    public void search(SearchParameters parameters, Consumer<SearchResult> consumer) {
+        request(parameters, consumer);
+    }
+
+    @Override
+    public SearchRequest request(SearchParameters parameters, final Consumer<SearchResult> consumer) {
+        Resource resource = getResource(parameters);
+        final String uri = resource.getUri();
+        final Validated previous = this.validated.get(uri);
+        String ifNoneMatch = previous == null ? null : previous.etag;
+        final boolean[] isCancelled = {false};
+        final SearchRequest request = send(resource, ifNoneMatch, new RequestCallback() {
+
+            @Override
+            public void onResponseReceived(Request request, Response response) {
+                if (isCancelled[0]) {
+                    return;
+                }
+                int status = response.getStatusCode();
+                SearchResult result;
+                if (status == Response.SC_NOT_MODIFIED && previous != null) {
+                    result = previous.result;
+                } else if (status != Response.SC_OK) {
+                    GWT.log("Search request failed with status " + status + ": " + uri);
+                    result = SearchResult.FAILED;
+                } else {
+                    try {
+                        result = decode(response.getText());
+                    } catch (RuntimeException e) {
+                        GWT.log("Search response could not be decoded: " + uri, e);
+                        consumer.accept(SearchResult.FAILED);
+                        return;
+                    }
+                    String etag = response.getHeader(ETAG);
+                    if (etag != null && !etag.isEmpty()) {
+                        validated.put(uri, new Validated(etag, result));
+                    }
+                }
+                consumer.accept(result);
+            }
+
+            @Override
+            public void onError(Request request, Throwable exception) {
+                if (!isCancelled[0]) {
+                    GWT.log("Search request failed: " + uri, exception);
+                    consumer.accept(SearchResult.FAILED);
+                }
+            }
+
+        });
+        return new SearchRequest() {
+
+            @Override
+            public void cancel() {
+                isCancelled[0] = true;
+                request.cancel();
+            }
+
+        };
+    }
+
+    /**
+     * Forgets the remembered ETags, e.g. when the dataset changes.
+     */
+    public void clearValidators() {
+        this.validated.clear();
+    }
+
+    /**
+     * @param parameters the search parameters
+     * @return the search service resource for the parameters
+     */
+    protected Resource getResource(SearchParameters parameters) {
+        Resource resource = new Resource(this.url)
+                .addQueryParam("term", parameters.getTerm())
+                .addQueryParam("start", Integer.toString(parameters.getStart()));
+        if (parameters.getSize() != null) {
+            resource = resource.addQueryParam("size", parameters.getSize().toString());
+        }
+        if (parameters.getCursor() != null) {
+            resource = resource.addQueryParam("cursor", parameters.getCursor());
+        }
+        if (!parameters.isExactCount()) {
+            resource = resource.addQueryParam("count", "false");
+        }
+        if (this.format == Format.COLUMNAR) {
+            resource = resource.addQueryParam("format", "columnar");
+        }
+        return resource;
+    }
+
+    /**
+     * Sends the search GET request with RestyGWT. A subclass can send
+     * the request by another transport, e.g. to a stub service.
+     *
+     * @param resource the search service resource
+     * @param etag the remembered ETag to revalidate, or null if there
+     *      is none
+     * @param callback the callback which receives the response, or
+     *      the error if the request fails or times out
+     * @return the request, which cancels the transport
+     */
+    protected SearchRequest send(Resource resource, String etag, final RequestCallback callback) {
+        final Method method = resource.get()
+                .header(Resource.HEADER_ACCEPT, Resource.CONTENT_TYPE_JSON)
+                .timeout(this.timeout)
+                .expect(Response.SC_OK, Response.SC_NOT_MODIFIED);
+        if (etag != null) {
+            method.header(IF_NONE_MATCH, etag);
+        }
+        method.send(new TextCallback() {
+
+            @Override
+            public void onSuccess(Method method, String text) {
+                callback.onResponseReceived(method.getRequest(), method.getResponse());
+            }
+
+            @Override
+            public void onFailure(Method method, Throwable exception) {
+                callback.onError(method.getRequest(), exception);
+            }
+
+        });
+        return new SearchRequest() {
+
+            @Override
+            public void cancel() {
+                if (method.getRequest() != null) {
+                    method.getRequest().cancel();
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Decodes a search response body in the {@link Format} set by
+     * {@link #setFormat(Format)}. A subclass can decode another format.
+     *
+     * @param text the response body
+     * @return the search result
+     * @throws RuntimeException if the body cannot be decoded
+     */
+    protected SearchResult decode(String text) {
+        if (this.format == Format.COLUMNAR) {
+            return ColumnarSearchResult.parse(text);
+        } else if (this.format == Format.OVERLAY) {
+            return JsSearchResult.parse(text);
+        }
+        if (this.mapper == null) {
+            this.mapper = GWT.create(SearchResponseMapper.class);
+        }
+        SearchResponse response = this.mapper.read(text);
+        final Integer numFound = response.numFound;
+        final boolean isNumFoundExact = !Boolean.FALSE.equals(response.numFoundExact);
+        final String nextCursor = response.nextCursor;
+        final List<Suggestion> entries = new ArrayList<Suggestion>();
+        if (response.entries != null) {
+            for (SearchResponse.Entry entry : response.entries) {
+                // The image URL comes from the trusted search service.
+                entries.add(new BasicSuggestion(entry.key, entry.title,
+                        entry.image == null ? null : UriUtils.fromTrustedString(entry.image),
+                        entry.secondary));
+            }
+        }
+        return new SearchResult() {
+
+            @Override
+            public Integer getNumFound() {
+                return numFound;
+            }
+
+            @Override
+            public List<Suggestion> getEntries() {
+                return entries;
+            }
+
+            @Override
+            public boolean isNumFoundExact() {
+                return isNumFoundExact;
+            }
+
+            @Override
+            public String getNextCursor() {
+                return nextCursor;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.reactome.web.widgets.rest;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The JSON search response decoded by {@link RestSearcher}, in the
+ * format served by {@code org.reactome.web.widgets.server.SearchServlet}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SearchResponse {
+
+    /**
+     * A suggestion in the search response.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Entry {
+        public String key;
+        public String title;
+        public List<String> secondary;
+        public String image;
+    }
+
+    public Integer numFound;
+
+    public Boolean numFoundExact;
+
+    public String nextCursor;
+
+    public List<Entry> entries;
+
+}
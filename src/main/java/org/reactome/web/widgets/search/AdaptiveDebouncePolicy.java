@@ -0,0 +1,103 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * A {@link DebouncePolicy} which tunes the quiet period from the
+ * observed typing cadence and search latency.
+ *
+ * The policy keeps exponentially weighted moving averages of the
+ * interval between keystrokes and of the search latency. The quiet
+ * period is long enough that a typist's next keystroke usually
+ * arrives before the search fires, and is lengthened for a slow
+ * backend, where an unnecessary intermediate search is more costly.
+ * The quiet period is bounded by the minimum and maximum delay.
+ */
+public class AdaptiveDebouncePolicy implements DebouncePolicy {
+
+    public static final int DEF_MIN_DELAY = 100;
+
+    public static final int DEF_MAX_DELAY = 750;
+
+    /**
+     * Keystroke intervals longer than this are pauses rather than
+     * typing cadence, and are ignored.
+     */
+    private static final int MAX_TYPING_INTERVAL = 1500;
+
+    /**
+     * The moving average weight of a new sample.
+     */
+    private static final double WEIGHT = 0.25;
+
+    /**
+     * The quiet period multiple of the typing interval.
+     */
+    private static final double TYPING_FACTOR = 1.5;
+
+    /**
+     * The quiet period fraction of the search latency.
+     */
+    private static final double LATENCY_FACTOR = 0.5;
+
+    private final int minDelay;
+
+    private final int maxDelay;
+
+    private final int minInputLength;
+
+    private double typingInterval;
+
+    private double latency;
+
+    private long lastInput;
+
+    public AdaptiveDebouncePolicy() {
+        this(DEF_MIN_DELAY, DEF_MAX_DELAY, 3);
+    }
+
+    /**
+     * @param minDelay the minimum quiet period in milliseconds
+     * @param maxDelay the maximum quiet period in milliseconds
+     * @param minInputLength the minimum actionable input length
+     */
+    public AdaptiveDebouncePolicy(int minDelay, int maxDelay, int minInputLength) {
+        if (minDelay < 0 || maxDelay < minDelay) {
+            String msg = "The adaptive debounce delay bounds are invalid: " +
+                    minDelay + ", " + maxDelay;
+            throw new IllegalArgumentException(msg);
+        }
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.minInputLength = minInputLength;
+    }
+
+    @Override
+    public int getDelay() {
+        double delay = Math.max(TYPING_FACTOR * this.typingInterval,
+                LATENCY_FACTOR * this.latency);
+        return (int) Math.max(this.minDelay, Math.min(this.maxDelay, delay));
+    }
+
+    @Override
+    public int getMinInputLength() {
+        return this.minInputLength;
+    }
+
+    @Override
+    public void onInput(long time) {
+        long interval = time - this.lastInput;
+        this.lastInput = time;
+        if (interval > 0 && interval <= MAX_TYPING_INTERVAL) {
+            this.typingInterval = average(this.typingInterval, interval);
+        }
+    }
+
+    @Override
+    public void onSearchLatency(int latency) {
+        this.latency = average(this.latency, latency);
+    }
+
+    private static double average(double average, double sample) {
+        return average == 0 ? sample : average + WEIGHT * (sample - average);
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.reactome.web.widgets.search;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gwt.safehtml.shared.SafeUri;
+
+/**
+ * An immutable {@link Suggestion}, e.g. decoded from a search
+ * response or from a persisted result.
+ */
+public class BasicSuggestion implements Suggestion {
+
+    private final Object key;
+
+    private final String title;
+
+    private final SafeUri image;
+
+    private final List<String> secondary;
+
+    /**
+     * @param key the suggestion key
+     * @param title the suggestion title
+     * @param image the suggestion image, or null for none
+     * @param secondary the secondary text items, or null for none
+     */
+    public BasicSuggestion(Object key, String title, SafeUri image, List<String> secondary) {
+        this.key = key;
+        this.title = title;
+        this.image = image;
+        this.secondary = secondary == null ? Collections.<String>emptyList() : secondary;
+    }
+
+    @Override
+    public Object getKey() {
+        return this.key;
+    }
+
+    @Override
+    public String getTitle() {
+        return this.title;
+    }
+
+    @Override
+    public SafeUri getImage() {
+        return this.image;
+    }
+
+    @Override
+    public List<String> getSecondary() {
+        return this.secondary;
+    }
+
+}
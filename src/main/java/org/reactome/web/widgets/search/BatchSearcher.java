@@ -0,0 +1,49 @@
+package org.reactome.web.widgets.search;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Searcher} which can search several parameters in a single
+ * call, e.g. in one HTTP round-trip. The {@link SearchScheduler}
+ * folds the searches queued in the same browser event loop into a
+ * batch if the searcher implements this interface.
+ */
+public interface BatchSearcher extends Searcher {
+
+    /**
+     * The default maximum number of searches in a batch.
+     */
+    static final int DEF_MAX_BATCH_SIZE = 8;
+
+    /**
+     * Searches for items which match each of the given parameters.
+     * The implementor is responsible for calling the consumer
+     * accept() method when the searches are completed with the
+     * search results in the same order as the parameters. A search
+     * whose result is missing or null completes as
+     * {@link SearchResult#FAILED}.
+     */
+    void search(List<SearchParameters> parameters, Consumer<List<SearchResult>> consumer);
+
+    /**
+     * Searches as in {@link #search(List, Consumer)} and returns a
+     * handle which can cancel the batch. The default implementation
+     * returns a handle which does not abort the batch.
+     *
+     * @return the batch handle
+     */
+    default SearchRequest request(List<SearchParameters> parameters,
+            Consumer<List<SearchResult>> consumer) {
+        search(parameters, consumer);
+        return SearchRequest.NONE;
+    }
+
+    /**
+     * @return the maximum number of searches in a batch
+     */
+    default int getMaxBatchSize() {
+        return DEF_MAX_BATCH_SIZE;
+    }
+
+}
@@ -0,0 +1,166 @@
+package org.reactome.web.widgets.search;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import com.google.gwt.core.client.JsonUtils;
+import com.google.gwt.safehtml.shared.SafeUri;
+import com.google.gwt.safehtml.shared.UriUtils;
+
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * A {@link SearchResult} decoded from the columnar JSON page format
+ * written by {@code org.reactome.web.widgets.server.ColumnarEncoder}.
+ * The page is parsed natively by the browser, and the columns are
+ * read in place. Each entry is a flyweight {@link Suggestion} which
+ * holds only its row index. The entries are created on first access.
+ */
+public class ColumnarSearchResult implements SearchResult {
+
+    /**
+     * The supported format version.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The parsed columnar page. JavaScript arrays are accessed as
+     * Java arrays.
+     */
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+    private static class Columns {
+        public int v;
+        public Double numFound;
+        public Boolean numFoundExact;
+        public String nextCursor;
+        public String[] keys;
+        public String[] titles;
+        public String[] dict;
+        public int[] images;
+        public int[] secondaryOffsets;
+        public int[] secondary;
+    }
+
+    /**
+     * A row of the columnar page.
+     */
+    private class Row implements Suggestion {
+        private final int row;
+        private List<String> secondary;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object getKey() {
+            return columns.keys[this.row];
+        }
+
+        @Override
+        public String getTitle() {
+            return columns.titles[this.row];
+        }
+
+        @Override
+        public SafeUri getImage() {
+            int image = columns.images[this.row];
+            // The image URL comes from the trusted search service.
+            return image < 0 ? null : UriUtils.fromTrustedString(columns.dict[image]);
+        }
+
+        @Override
+        public List<String> getSecondary() {
+            if (this.secondary == null) {
+                this.secondary = secondaryView();
+            }
+            return this.secondary;
+        }
+
+        private List<String> secondaryView() {
+            final int from = columns.secondaryOffsets[this.row];
+            final int to = columns.secondaryOffsets[this.row + 1];
+            return new AbstractList<String>() {
+
+                @Override
+                public String get(int index) {
+                    if (index < 0 || index >= to - from) {
+                        throw new IndexOutOfBoundsException("Secondary index: " + index);
+                    }
+                    return columns.dict[columns.secondary[from + index]];
+                }
+
+                @Override
+                public int size() {
+                    return to - from;
+                }
+
+            };
+        }
+
+    }
+
+    private final Columns columns;
+
+    private final Suggestion[] rows;
+
+    private final List<Suggestion> entries = new AbstractList<Suggestion>() {
+
+        @Override
+        public Suggestion get(int index) {
+            if (rows[index] == null) {
+                rows[index] = new Row(index);
+            }
+            return rows[index];
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+
+    };
+
+    private ColumnarSearchResult(Columns columns) {
+        this.columns = columns;
+        this.rows = new Suggestion[columns.keys.length];
+    }
+
+    /**
+     * @param json the columnar page
+     * @return the search result
+     * @throws IllegalArgumentException if the page is not valid JSON
+     *      in a supported format version
+     */
+    public static ColumnarSearchResult parse(String json) {
+        Object parsed = JsonUtils.safeEval(json);
+        Columns columns = (Columns) parsed;
+        if (columns.v != VERSION) {
+            throw new IllegalArgumentException("Unsupported columnar format version: " + columns.v);
+        }
+        return new ColumnarSearchResult(columns);
+    }
+
+    @Override
+    public Integer getNumFound() {
+        return this.columns.numFound == null ? null : this.columns.numFound.intValue();
+    }
+
+    @Override
+    public List<Suggestion> getEntries() {
+        return this.entries;
+    }
+
+
+    @Override
+    public boolean isNumFoundExact() {
+        return this.columns.numFoundExact == null || this.columns.numFoundExact;
+    }
+
+    @Override
+    public String getNextCursor() {
+        return this.columns.nextCursor;
+    }
+
+}
@@ -0,0 +1,112 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * A {@link SearchMetrics} sink which counts the events and keeps
+ * latency and render time histograms. The host application can
+ * periodically read and report the values, e.g. to size the search
+ * backend or to tell whether a slow session is due to the client or
+ * to the server.
+ */
+public class CountingSearchMetrics implements SearchMetrics {
+
+    private int keystrokeCount;
+
+    private int debouncedCount;
+
+    private int searchCount;
+
+    private final int[] hitCounts = new int[Cache.values().length];
+
+    private final int[] missCounts = new int[Cache.values().length];
+
+    private int staleCount;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LatencyHistogram render = new LatencyHistogram();
+
+    @Override
+    public void onKeystroke() {
+        this.keystrokeCount++;
+    }
+
+    @Override
+    public void onDebounced() {
+        this.debouncedCount++;
+    }
+
+    @Override
+    public void onSearch(SearchParameters parameters) {
+        this.searchCount++;
+    }
+
+    @Override
+    public void onSearchLatency(int latency) {
+        this.latency.record(latency);
+    }
+
+    @Override
+    public void onCacheLookup(Cache cache, boolean hit) {
+        if (hit) {
+            this.hitCounts[cache.ordinal()]++;
+        } else {
+            this.missCounts[cache.ordinal()]++;
+        }
+    }
+
+    @Override
+    public void onStaleResponse() {
+        this.staleCount++;
+    }
+
+    @Override
+    public void onRender(int rows, int time) {
+        this.render.record(time);
+    }
+
+    public int getKeystrokeCount() {
+        return this.keystrokeCount;
+    }
+
+    public int getDebouncedCount() {
+        return this.debouncedCount;
+    }
+
+    /**
+     * @return the number of keystrokes which did not result in a term
+     */
+    public int getSuppressedCount() {
+        return Math.max(0, this.keystrokeCount - this.debouncedCount);
+    }
+
+    public int getSearchCount() {
+        return this.searchCount;
+    }
+
+    public int getHitCount(Cache cache) {
+        return this.hitCounts[cache.ordinal()];
+    }
+
+    public int getMissCount(Cache cache) {
+        return this.missCounts[cache.ordinal()];
+    }
+
+    public int getStaleCount() {
+        return this.staleCount;
+    }
+
+    /**
+     * @return the searcher latency histogram
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * @return the page render time histogram
+     */
+    public LatencyHistogram getRender() {
+        return this.render;
+    }
+
+}
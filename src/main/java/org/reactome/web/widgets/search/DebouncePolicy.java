@@ -0,0 +1,40 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * Determines when {@link SearchBox} input is searched. The search
+ * box waits for a quiet period without input before it searches,
+ * and only searches input of at least a minimum length.
+ *
+ * The search box notifies the policy of each input, and the combo
+ * box notifies the policy of each search latency, so that an
+ * adaptive policy can tune the quiet period.
+ */
+public interface DebouncePolicy {
+
+    /**
+     * @return the quiet period in milliseconds
+     */
+    int getDelay();
+
+    /**
+     * @return the minimum actionable input length
+     */
+    int getMinInputLength();
+
+    /**
+     * Records a user input.
+     *
+     * @param time the input time in milliseconds
+     */
+    default void onInput(long time) {
+    }
+
+    /**
+     * Records the time taken by a search.
+     *
+     * @param latency the search latency in milliseconds
+     */
+    default void onSearchLatency(int latency) {
+    }
+
+}
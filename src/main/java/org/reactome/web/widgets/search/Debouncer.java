@@ -0,0 +1,140 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * The search box debounce state machine. The debouncer decides
+ * whether an input value should be searched, given the
+ * {@link DebouncePolicy} delay and minimum input length. A value is
+ * accepted if the following conditions are met:
+ * <ul>
+ * <li>the delay has elapsed since the last change</li>
+ * <li>the value or the previously accepted value is actionable,
+ *     i.e. at least the minimum input length</li>
+ * <li>the value differs from the previously accepted value</li>
+ * </ul>
+ *
+ * The debouncer does not depend on GWT. The caller supplies the
+ * {@link Timer} which rechecks the value when the delay elapses.
+ */
+public class Debouncer {
+
+    /**
+     * The delay timer.
+     */
+    public interface Timer {
+
+        /**
+         * (Re)schedules the timer to run after the given delay.
+         *
+         * @param delay the delay in milliseconds
+         */
+        void schedule(int delay);
+
+        /**
+         * Cancels the timer if it is scheduled.
+         */
+        void cancel();
+
+        /**
+         * @return whether the timer is scheduled and has not run
+         */
+        boolean isRunning();
+
+    }
+
+    private final Timer timer;
+
+    private DebouncePolicy policy;
+
+    private String value;
+
+    private boolean start = true;
+
+    /**
+     * @param policy the debounce policy
+     * @param timer the timer which calls {@link #check(String)} when
+     *      it runs
+     */
+    public Debouncer(DebouncePolicy policy, Timer timer) {
+        this.policy = policy;
+        this.timer = timer;
+    }
+
+    /**
+     * @return the debounce policy
+     */
+    public DebouncePolicy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * @param policy the debounce policy
+     */
+    public void setPolicy(DebouncePolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Checks the value on input or when the timer runs.
+     *
+     * @param value the current input value
+     * @return whether the value should be searched
+     */
+    public boolean check(String value) {
+        if (this.start) {
+            // Start the timer.
+            this.start = false;
+            this.timer.schedule(this.policy.getDelay());
+            return false;
+        }
+        boolean isChanged = isChanged(value);
+        if (this.timer.isRunning()) {
+            // Need to wait.
+            if (isChanged) {
+                this.timer.schedule(this.policy.getDelay());
+            }
+            return false;
+        } else if (isActionable(this.value) || isActionable(value)) {
+            // The input is or was long enough.
+            if (isChanged) {
+                // We have a winner; reset the value and start over.
+                this.start = true;
+                this.value = value;
+            }
+            return isChanged;
+        } else {
+            // Not enough characters; restart the timer.
+            this.timer.schedule(this.policy.getDelay());
+            return false;
+        }
+    }
+
+    /**
+     * Checks the value without waiting for the timer.
+     *
+     * @param value the current input value
+     * @return whether the value should be searched
+     */
+    public boolean flush(String value) {
+        this.timer.cancel();
+        this.start = true;
+        boolean isChanged = isChanged(value);
+        if (isChanged && (isActionable(this.value) || isActionable(value))) {
+            this.value = value;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param value the input value
+     * @return whether the value is at least the minimum input length
+     */
+    public boolean isActionable(String value) {
+        return !(value == null || value.length() < this.policy.getMinInputLength());
+    }
+
+    private boolean isChanged(String value) {
+        return value == null ? this.value != null : !value.equals(this.value);
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * A {@link DebouncePolicy} with a constant quiet period and minimum
+ * input length.
+ */
+public class FixedDebouncePolicy implements DebouncePolicy {
+
+    private final int delay;
+
+    private final int minInputLength;
+
+    public FixedDebouncePolicy(int delay, int minInputLength) {
+        this.delay = delay;
+        this.minInputLength = minInputLength;
+    }
+
+    @Override
+    public int getDelay() {
+        return delay;
+    }
+
+    @Override
+    public int getMinInputLength() {
+        return minInputLength;
+    }
+
+}
@@ -0,0 +1,280 @@
+package org.reactome.web.widgets.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.reactome.web.widgets.interop.IndexedDB;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.user.client.Timer;
+
+/**
+ * A {@link PersistentResultCache.Store} in a browser IndexedDB
+ * database. The operations made while the database is opening are
+ * queued. If the database cannot be opened, e.g. in a private
+ * browsing window, then the operations are delegated to the fallback
+ * store, if any.
+ *
+ * The open is abandoned in favour of the fallback if it is blocked
+ * by another tab which holds an older database version, or if it
+ * does not finish within {@link #OPEN_TIMEOUT} milliseconds, so that
+ * the queued reads are answered. The database is closed when another
+ * tab upgrades it, and the later operations use the fallback.
+ */
+public class IndexedDbStore implements PersistentResultCache.Store {
+
+    /**
+     * The time in milliseconds after which a pending open falls back.
+     */
+    public static final int OPEN_TIMEOUT = 3000;
+
+    private static final int DB_VERSION = 1;
+
+    private static final String OBJECT_STORE = "results";
+
+    private static final String READ_ONLY = "readonly";
+
+    private static final String READ_WRITE = "readwrite";
+
+    private IndexedDB.Database database;
+
+    private final PersistentResultCache.Store fallback;
+
+    private boolean isFailed;
+
+    /**
+     * The operations made while the database is opening, or null if
+     * the open has finished.
+     */
+    private List<Runnable> queued = new ArrayList<Runnable>();
+
+    private final Timer openTimer = new Timer() {
+
+        @Override
+        public void run() {
+            opened(null);
+        }
+
+    };
+
+    /**
+     * @return whether the browser supports IndexedDB
+     */
+    public static boolean isSupported() {
+        return IndexedDB.getFactory() != null;
+    }
+
+    /**
+     * @param name the database name
+     * @param fallback the store used if the database cannot be
+     *      opened, or null for none
+     */
+    public IndexedDbStore(String name, PersistentResultCache.Store fallback) {
+        this.fallback = fallback;
+        try {
+            final IndexedDB.OpenRequest request = IndexedDB.getFactory().open(name, DB_VERSION);
+            request.onupgradeneeded = new IndexedDB.Handler() {
+
+                @Override
+                public void handle(Object event) {
+                    ((IndexedDB.Database) request.result).createObjectStore(OBJECT_STORE);
+                }
+
+            };
+            request.onsuccess = new IndexedDB.Handler() {
+
+                @Override
+                public void handle(Object event) {
+                    opened((IndexedDB.Database) request.result);
+                }
+
+            };
+            request.onerror = new IndexedDB.Handler() {
+
+                @Override
+                public void handle(Object event) {
+                    opened(null);
+                }
+
+            };
+            request.onblocked = new IndexedDB.Handler() {
+
+                @Override
+                public void handle(Object event) {
+                    opened(null);
+                }
+
+            };
+            this.openTimer.schedule(OPEN_TIMEOUT);
+        } catch (RuntimeException e) {
+            // Opening throws if IndexedDB is disabled.
+            this.isFailed = true;
+            this.queued = null;
+        }
+    }
+
+    @Override
+    public void get(final String key, final Consumer<String> consumer) {
+        run(new Runnable() {
+
+            @Override
+            public void run() {
+                if (isFailed) {
+                    if (fallback == null) {
+                        consumer.accept(null);
+                    } else {
+                        fallback.get(key, consumer);
+                    }
+                    return;
+                }
+                try {
+                    final IndexedDB.Request request =
+                            database.transaction(OBJECT_STORE, READ_ONLY)
+                                    .objectStore(OBJECT_STORE).get(key);
+                    request.onsuccess = new IndexedDB.Handler() {
+
+                        @Override
+                        public void handle(Object event) {
+                            Object result = request.result;
+                            consumer.accept(result instanceof String ? (String) result : null);
+                        }
+
+                    };
+                    request.onerror = new IndexedDB.Handler() {
+
+                        @Override
+                        public void handle(Object event) {
+                            consumer.accept(null);
+                        }
+
+                    };
+                } catch (RuntimeException e) {
+                    consumer.accept(null);
+                }
+            }
+
+        });
+    }
+
+    @Override
+    public void put(final String key, final String value) {
+        run(new Runnable() {
+
+            @Override
+            public void run() {
+                if (isFailed) {
+                    if (fallback != null) {
+                        fallback.put(key, value);
+                    }
+                    return;
+                }
+                try {
+                    write().put(value, key);
+                } catch (RuntimeException e) {
+                    // The cache is best effort, e.g. the quota might be exceeded.
+                }
+            }
+
+        });
+    }
+
+    @Override
+    public void remove(final String key) {
+        run(new Runnable() {
+
+            @Override
+            public void run() {
+                if (isFailed) {
+                    if (fallback != null) {
+                        fallback.remove(key);
+                    }
+                    return;
+                }
+                try {
+                    write().delete(key);
+                } catch (RuntimeException e) {
+                    // The entry will expire.
+                }
+            }
+
+        });
+    }
+
+    @Override
+    public void clear() {
+        run(new Runnable() {
+
+            @Override
+            public void run() {
+                if (isFailed) {
+                    if (fallback != null) {
+                        fallback.clear();
+                    }
+                    return;
+                }
+                try {
+                    write().clear();
+                } catch (RuntimeException e) {
+                    // The entries will expire.
+                }
+            }
+
+        });
+    }
+
+    private IndexedDB.ObjectStore write() {
+        return this.database.transaction(OBJECT_STORE, READ_WRITE).objectStore(OBJECT_STORE);
+    }
+
+    private void run(final Runnable operation) {
+        if (this.queued != null) {
+            this.queued.add(operation);
+        } else if (this.isFailed) {
+            // Keep the reads asynchronous.
+            Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+                @Override
+                public void execute() {
+                    operation.run();
+                }
+
+            });
+        } else {
+            operation.run();
+        }
+    }
+
+    private void opened(final IndexedDB.Database database) {
+        if (this.queued == null) {
+            // The open has already fallen back.
+            if (database != null) {
+                database.close();
+            }
+            return;
+        }
+        this.openTimer.cancel();
+        if (database != null) {
+            database.onversionchange = new IndexedDB.Handler() {
+
+                @Override
+                public void handle(Object event) {
+                    // Let the other tab upgrade the database.
+                    database.close();
+                    IndexedDbStore.this.database = null;
+                    isFailed = true;
+                }
+
+            };
+        }
+        this.database = database;
+        this.isFailed = database == null;
+        List<Runnable> queued = this.queued;
+        this.queued = null;
+        for (Runnable operation : queued) {
+            operation.run();
+        }
+    }
+
+}
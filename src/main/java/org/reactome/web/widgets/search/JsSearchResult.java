@@ -0,0 +1,101 @@
+package org.reactome.web.widgets.search;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import com.google.gwt.core.client.JsonUtils;
+
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * A {@link SearchResult} view of a parsed JSON search result of the
+ * form:
+ * <pre>
+ * {"numFound": 42, "nextCursor": "...", "entries": [ ...{@link JsSuggestion} objects... ]}
+ * </pre>
+ * as served by {@code org.reactome.web.widgets.server.SearchServlet}.
+ * The number found and the next cursor are optional. An estimated
+ * number found is flagged by a <code>"numFoundExact": false</code>
+ * field. The entries are {@link JsSuggestion}
+ * views, which are created on first access.
+ */
+public class JsSearchResult implements SearchResult {
+
+    /**
+     * The parsed search result object.
+     */
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+    public static class Data {
+        public Double numFound;
+        public Boolean numFoundExact;
+        public String nextCursor;
+        public JsSuggestion.Data[] entries;
+    }
+
+    private final Data data;
+
+    private final Suggestion[] views;
+
+    private final List<Suggestion> entries = new AbstractList<Suggestion>() {
+
+        @Override
+        public Suggestion get(int index) {
+            if (views[index] == null) {
+                views[index] = new JsSuggestion(data.entries[index]);
+            }
+            return views[index];
+        }
+
+        @Override
+        public int size() {
+            return views.length;
+        }
+
+    };
+
+    /**
+     * @param data the parsed search result object
+     * @throws IllegalArgumentException if the object does not have
+     *      an entries array
+     */
+    public JsSearchResult(Data data) {
+        if (data == null || data.entries == null) {
+            throw new IllegalArgumentException("The search result does not have entries");
+        }
+        this.data = data;
+        this.views = new Suggestion[data.entries.length];
+    }
+
+    /**
+     * @param json the search result JSON
+     * @return the search result view
+     * @throws IllegalArgumentException if the JSON is not a search result
+     */
+    public static JsSearchResult parse(String json) {
+        Object parsed = JsonUtils.safeEval(json);
+        return new JsSearchResult((Data) parsed);
+    }
+
+    @Override
+    public Integer getNumFound() {
+        return this.data.numFound == null ? null : this.data.numFound.intValue();
+    }
+
+    @Override
+    public List<Suggestion> getEntries() {
+        return this.entries;
+    }
+
+
+    @Override
+    public boolean isNumFoundExact() {
+        return this.data.numFoundExact == null || this.data.numFoundExact;
+    }
+
+    @Override
+    public String getNextCursor() {
+        return this.data.nextCursor;
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.reactome.web.widgets.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gwt.safehtml.shared.SafeUri;
+import com.google.gwt.safehtml.shared.UriUtils;
+
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * A {@link Suggestion} view of a parsed JSON suggestion object of the
+ * form:
+ * <pre>
+ * {"key": "R-HSA-1", "title": "...", "secondary": ["..."], "image": "..."}
+ * </pre>
+ * The view reads the JavaScript object in place. The secondary list
+ * wraps the JavaScript array without copying it.
+ *
+ * The key is a string or a JavaScript number unless the object has
+ * a {@code keyType} of {@link #INT_KEY}, {@link #LONG_KEY} or
+ * {@link #DOUBLE_KEY}, as written by {@link SearchResultCodec#JSON},
+ * in which case the key is converted to the Java type.
+ *
+ * A native JsType cannot implement a Java interface, so the view is
+ * a thin Java wrapper of the native {@link Data} object.
+ */
+public class JsSuggestion implements Suggestion {
+
+    /**
+     * The {@code keyType} of an {@link Integer} key held as a number.
+     */
+    public static final String INT_KEY = "int";
+
+    /**
+     * The {@code keyType} of a {@link Long} key held as a string.
+     */
+    public static final String LONG_KEY = "long";
+
+    /**
+     * The {@code keyType} of a {@link Double} key held as a number.
+     */
+    public static final String DOUBLE_KEY = "double";
+
+    /**
+     * The parsed suggestion object.
+     */
+    @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "Object")
+    public static class Data {
+        public Object key;
+        public String keyType;
+        public String title;
+        public String image;
+        public String[] secondary;
+    }
+
+    private final Data data;
+
+    private List<String> secondary;
+
+    /**
+     * @param data the parsed suggestion object
+     */
+    public JsSuggestion(Data data) {
+        this.data = data;
+    }
+
+    /**
+     * @return the parsed suggestion object
+     */
+    public Data getData() {
+        return this.data;
+    }
+
+    @Override
+    public Object getKey() {
+        Object key = this.data.key;
+        if (key == null || this.data.keyType == null) {
+            return key;
+        }
+        switch (this.data.keyType) {
+        case INT_KEY:
+            return ((Double) key).intValue();
+        case LONG_KEY:
+            return Long.valueOf((String) key);
+        case DOUBLE_KEY:
+            return (Double) key;
+        default:
+            return key;
+        }
+    }
+
+    @Override
+    public String getTitle() {
+        return this.data.title;
+    }
+
+    @Override
+    public SafeUri getImage() {
+        // The image URL comes from the trusted search service.
+        return this.data.image == null ? null : UriUtils.fromTrustedString(this.data.image);
+    }
+
+    @Override
+    public List<String> getSecondary() {
+        if (this.secondary == null) {
+            this.secondary = this.data.secondary == null ?
+                    Collections.<String>emptyList() : Arrays.asList(this.data.secondary);
+        }
+        return this.secondary;
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.reactome.web.widgets.search;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of millisecond durations with exponentially growing
+ * bucket bounds.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The default bucket upper bounds in milliseconds. The last
+     * bucket holds the durations above the last bound.
+     */
+    public static final int[] DEF_BOUNDS =
+        {10, 25, 50, 100, 200, 400, 800, 1600, 3200};
+
+    private final int[] bounds;
+
+    private final int[] counts;
+
+    private int count;
+
+    private long sum;
+
+    private int max;
+
+    public LatencyHistogram() {
+        this(DEF_BOUNDS);
+    }
+
+    /**
+     * @param bounds the ascending bucket upper bounds in milliseconds
+     */
+    public LatencyHistogram(int[] bounds) {
+        this.bounds = Arrays.copyOf(bounds, bounds.length);
+        this.counts = new int[bounds.length + 1];
+    }
+
+    /**
+     * @param duration the duration in milliseconds
+     */
+    public void record(int duration) {
+        int bucket = 0;
+        while (bucket < this.bounds.length && duration > this.bounds[bucket]) {
+            bucket++;
+        }
+        this.counts[bucket]++;
+        this.count++;
+        this.sum += duration;
+        this.max = Math.max(this.max, duration);
+    }
+
+    /**
+     * @return the bucket upper bounds
+     */
+    public int[] getBounds() {
+        return Arrays.copyOf(this.bounds, this.bounds.length);
+    }
+
+    /**
+     * @return the bucket counts, one more than the number of bounds
+     */
+    public int[] getCounts() {
+        return Arrays.copyOf(this.counts, this.counts.length);
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    public int getMax() {
+        return this.max;
+    }
+
+    /**
+     * @return the mean duration, or zero if there are no durations
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.sum / this.count;
+    }
+
+    /**
+     * Returns the upper bound of the bucket which holds the given
+     * percentile. The maximum is returned for the overflow bucket.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the percentile estimate in milliseconds
+     */
+    public int getPercentile(double percentile) {
+        long rank = (long) Math.ceil(percentile / 100 * this.count);
+        long cumulative = 0;
+        for (int i = 0; i < this.bounds.length; i++) {
+            cumulative += this.counts[i];
+            if (cumulative >= rank) {
+                return Math.min(this.bounds[i], this.max);
+            }
+        }
+        return this.max;
+    }
+
+}
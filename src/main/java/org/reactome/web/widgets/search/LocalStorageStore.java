@@ -0,0 +1,73 @@
+package org.reactome.web.widgets.search;
+
+import java.util.function.Consumer;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.storage.client.Storage;
+
+/**
+ * A {@link PersistentResultCache.Store} in the browser local storage.
+ * The keys are prefixed with the store name. Reads are deferred to a
+ * later browser event loop, so that they do not delay the current
+ * event.
+ */
+public class LocalStorageStore implements PersistentResultCache.Store {
+
+    private final Storage storage;
+
+    private final String prefix;
+
+    /**
+     * @return whether the browser supports local storage
+     */
+    public static boolean isSupported() {
+        return Storage.isLocalStorageSupported();
+    }
+
+    /**
+     * @param name the store name
+     */
+    public LocalStorageStore(String name) {
+        this.storage = Storage.getLocalStorageIfSupported();
+        this.prefix = name + '\u0000';
+    }
+
+    @Override
+    public void get(final String key, final Consumer<String> consumer) {
+        Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+            @Override
+            public void execute() {
+                consumer.accept(storage.getItem(prefix + key));
+            }
+
+        });
+    }
+
+    @Override
+    public void put(String key, String value) {
+        try {
+            this.storage.setItem(this.prefix + key, value);
+        } catch (RuntimeException e) {
+            // The cache is best effort, e.g. the quota might be exceeded.
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        this.storage.removeItem(this.prefix + key);
+    }
+
+    @Override
+    public void clear() {
+        // Remove only this store's keys.
+        for (int i = this.storage.getLength() - 1; i >= 0; i--) {
+            String key = this.storage.key(i);
+            if (key != null && key.startsWith(this.prefix)) {
+                this.storage.removeItem(key);
+            }
+        }
+    }
+
+}
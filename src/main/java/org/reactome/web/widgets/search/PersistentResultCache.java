@@ -0,0 +1,434 @@
+package org.reactome.web.widgets.search;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONParser;
+import com.google.gwt.json.client.JSONString;
+
+/**
+ * A cross-session cache of search result pages keyed by the dataset
+ * version and the normalized search parameters. The results are
+ * persisted in a {@link Store}, by default an {@link IndexedDbStore}
+ * with a {@link LocalStorageStore} fallback.
+ *
+ * Reads are asynchronous. The cache keeps a manifest of the entry
+ * sizes and expiry times, which is used to evict the least recently
+ * used entries when the size budget is exceeded. A change of dataset
+ * version discards the previous version's entries.
+ *
+ * Several browser tabs can share the store. Before the manifest is
+ * saved, it is merged with the stored manifest, so that the entries
+ * written by another tab are counted against the size budget and
+ * are evicted in turn. The manifest is keyed by the dataset version.
+ *
+ * A cache is opted into by calling
+ * {@link SearchDataProvider#setPersistentCache(PersistentResultCache)}.
+ */
+public class PersistentResultCache {
+
+    /**
+     * The default size budget in bytes.
+     */
+    public static final long DEF_MAX_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * The default time-to-live in milliseconds.
+     */
+    public static final int DEF_TTL = 24 * 60 * 60 * 1000;
+
+    private static final String MANIFEST_KEY = "manifest";
+
+    /**
+     * An asynchronous persistent string store.
+     */
+    public interface Store {
+
+        /**
+         * @param key the key
+         * @param consumer the consumer of the value, or of null if
+         *      there is none, which is called asynchronously
+         */
+        void get(String key, Consumer<String> consumer);
+
+        /**
+         * @param key the key
+         * @param value the value
+         */
+        void put(String key, String value);
+
+        /**
+         * @param key the key
+         */
+        void remove(String key);
+
+        /**
+         * Removes every key.
+         */
+        void clear();
+
+    }
+
+    private static class ManifestEntry {
+        private final int bytes;
+        private final long expires;
+
+        private ManifestEntry(int bytes, long expires) {
+            this.bytes = bytes;
+            this.expires = expires;
+        }
+    }
+
+    private final Store store;
+
+    private final String version;
+
+    private final String manifestKey;
+
+    private final long maxBytes;
+
+    private final int ttl;
+
+    private SearchResultCodec codec = SearchResultCodec.JSON;
+
+    /**
+     * The entries in least recently used order.
+     */
+    private final LinkedHashMap<String, ManifestEntry> manifest =
+            new LinkedHashMap<String, ManifestEntry>(16, 0.75f, true);
+
+    private long byteCount;
+
+    /**
+     * The keys removed since the manifest was last saved, which are
+     * not merged back from the stored manifest.
+     */
+    private final Set<String> removedKeys = new HashSet<String>();
+
+    /**
+     * The puts made before the manifest is loaded, or null if the
+     * manifest is loaded.
+     */
+    private List<String[]> queuedPuts = new ArrayList<String[]>();
+
+    private boolean isSaveScheduled;
+
+    /**
+     * Creates a cache in the browser's IndexedDB, or in the local
+     * storage if IndexedDB is not available.
+     *
+     * @param name the database name
+     * @param version the dataset version
+     * @return the cache, or null if the browser has no persistent
+     *      storage
+     */
+    public static PersistentResultCache create(String name, String version) {
+        Store fallback = LocalStorageStore.isSupported() ? new LocalStorageStore(name) : null;
+        Store store = IndexedDbStore.isSupported() ? new IndexedDbStore(name, fallback) : fallback;
+        return store == null ? null : new PersistentResultCache(store, version, DEF_MAX_BYTES, DEF_TTL);
+    }
+
+    /**
+     * @param store the persistent store
+     * @param version the dataset version, which is changed to
+     *      invalidate the cached results
+     * @param maxBytes the size budget in bytes
+     * @param ttl the time-to-live in milliseconds
+     */
+    public PersistentResultCache(Store store, String version, long maxBytes, int ttl) {
+        this.store = store;
+        this.version = version;
+        this.manifestKey = MANIFEST_KEY + '\u0000' + version;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        store.get(this.manifestKey, new Consumer<String>() {
+
+            @Override
+            public void accept(String text) {
+                loadManifest(text);
+            }
+
+        });
+    }
+
+    /**
+     * @param codec the result codec
+     */
+    public void setCodec(SearchResultCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Looks up a result. The consumer is called asynchronously with
+     * the unexpired cached result, or with null if there is none.
+     *
+     * @param parameters the search parameters
+     * @param consumer the result consumer
+     */
+    public void get(SearchParameters parameters, final Consumer<SearchResult> consumer) {
+        final String key = keyFor(parameters);
+        this.store.get(key, new Consumer<String>() {
+
+            @Override
+            public void accept(String value) {
+                consumer.accept(decode(key, value));
+            }
+
+        });
+    }
+
+    /**
+     * @param parameters the search parameters
+     * @param result the complete result to cache, which is ignored
+     *      if it is failed or cannot be encoded
+     */
+    public void put(SearchParameters parameters, SearchResult result) {
+        if (result.isFailed()) {
+            return;
+        }
+        String encoded;
+        try {
+            encoded = this.codec.encode(result);
+        } catch (IllegalArgumentException e) {
+            // The result is searched again in the next session.
+            return;
+        }
+        long expires = System.currentTimeMillis() + this.ttl;
+        String value = expires + ":" + encoded;
+        String key = keyFor(parameters);
+        if (this.queuedPuts != null) {
+            this.queuedPuts.add(new String[] {key, value});
+        } else {
+            put(key, value, expires);
+        }
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        this.store.clear();
+        this.manifest.clear();
+        this.removedKeys.clear();
+        this.byteCount = 0;
+    }
+
+    /**
+     * @return the estimated size of the cached results in bytes
+     */
+    public long getByteCount() {
+        return this.byteCount;
+    }
+
+    private String keyFor(SearchParameters parameters) {
+        return this.version + '\u0000' + SearchResultCache.keyFor(parameters);
+    }
+
+    private SearchResult decode(String key, String value) {
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(':');
+        try {
+            long expires = Long.parseLong(value.substring(0, separator));
+            if (expires >= System.currentTimeMillis()) {
+                SearchResult result = this.codec.decode(value.substring(separator + 1));
+                // Mark the entry as recently used.
+                this.manifest.get(key);
+                return result;
+            }
+        } catch (RuntimeException e) {
+            // Drop an entry which cannot be decoded.
+        }
+        remove(key);
+        return null;
+    }
+
+    private void put(String key, String value, long expires) {
+        ManifestEntry previous = this.manifest.remove(key);
+        if (previous != null) {
+            this.byteCount -= previous.bytes;
+        }
+        // A JavaScript string character takes two bytes.
+        int bytes = 2 * (key.length() + value.length());
+        if (bytes > this.maxBytes) {
+            return;
+        }
+        this.store.put(key, value);
+        this.manifest.put(key, new ManifestEntry(bytes, expires));
+        this.removedKeys.remove(key);
+        this.byteCount += bytes;
+        evict();
+        scheduleSave();
+    }
+
+    /**
+     * Removes the least recently used entries until the size budget
+     * is met.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, ManifestEntry>> iter = this.manifest.entrySet().iterator();
+        while (this.byteCount > this.maxBytes && iter.hasNext()) {
+            Map.Entry<String, ManifestEntry> eldest = iter.next();
+            iter.remove();
+            this.byteCount -= eldest.getValue().bytes;
+            this.removedKeys.add(eldest.getKey());
+            this.store.remove(eldest.getKey());
+        }
+    }
+
+    private void remove(String key) {
+        ManifestEntry entry = this.manifest.remove(key);
+        if (entry != null) {
+            this.byteCount -= entry.bytes;
+            scheduleSave();
+        }
+        this.removedKeys.add(key);
+        this.store.remove(key);
+    }
+
+    /**
+     * @param text the stored manifest, or null if there is none
+     * @return the unexpired stored entries in least recently used
+     *      order, or null if the manifest is missing or invalid
+     */
+    private LinkedHashMap<String, ManifestEntry> parseManifest(String text) {
+        if (text == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        LinkedHashMap<String, ManifestEntry> parsed = new LinkedHashMap<String, ManifestEntry>();
+        try {
+            JSONObject json = JSONParser.parseStrict(text).isObject();
+            if (!this.version.equals(json.get("v").isString().stringValue())) {
+                return null;
+            }
+            JSONArray entries = json.get("e").isArray();
+            for (int i = 0; i < entries.size(); i++) {
+                JSONArray entry = entries.get(i).isArray();
+                String key = entry.get(0).isString().stringValue();
+                int bytes = (int) entry.get(1).isNumber().doubleValue();
+                long expires = (long) entry.get(2).isNumber().doubleValue();
+                if (expires < now) {
+                    this.store.remove(key);
+                } else {
+                    parsed.put(key, new ManifestEntry(bytes, expires));
+                }
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return parsed;
+    }
+
+    private void loadManifest(String text) {
+        LinkedHashMap<String, ManifestEntry> stored = parseManifest(text);
+        if (stored == null) {
+            // Discard the entries of another dataset version.
+            this.store.clear();
+            this.manifest.clear();
+            this.byteCount = 0;
+        } else {
+            for (Map.Entry<String, ManifestEntry> entry : stored.entrySet()) {
+                this.manifest.put(entry.getKey(), entry.getValue());
+                this.byteCount += entry.getValue().bytes;
+            }
+        }
+        List<String[]> queued = this.queuedPuts;
+        this.queuedPuts = null;
+        for (String[] put : queued) {
+            long expires = Long.parseLong(put[1].substring(0, put[1].indexOf(':')));
+            put(put[0], put[1], expires);
+        }
+        scheduleSave();
+    }
+
+    /**
+     * Saves the manifest once per browser event loop.
+     */
+    private void scheduleSave() {
+        if (this.isSaveScheduled) {
+            return;
+        }
+        this.isSaveScheduled = true;
+        Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+            @Override
+            public void execute() {
+                isSaveScheduled = false;
+                saveManifest();
+            }
+
+        });
+    }
+
+    /**
+     * Merges the stored manifest and then saves the manifest.
+     */
+    private void saveManifest() {
+        this.store.get(this.manifestKey, new Consumer<String>() {
+
+            @Override
+            public void accept(String text) {
+                mergeManifest(parseManifest(text));
+                writeManifest();
+            }
+
+        });
+    }
+
+    /**
+     * Adds the entries written by other tabs as the least recently
+     * used entries, and evicts entries if the budget is exceeded.
+     *
+     * @param stored the stored entries, or null if there are none
+     */
+    private void mergeManifest(LinkedHashMap<String, ManifestEntry> stored) {
+        if (stored == null) {
+            return;
+        }
+        LinkedHashMap<String, ManifestEntry> merged = new LinkedHashMap<String, ManifestEntry>();
+        for (Map.Entry<String, ManifestEntry> entry : stored.entrySet()) {
+            String key = entry.getKey();
+            if (!this.manifest.containsKey(key) && !this.removedKeys.contains(key)) {
+                merged.put(key, entry.getValue());
+                this.byteCount += entry.getValue().bytes;
+            }
+        }
+        if (merged.isEmpty()) {
+            return;
+        }
+        merged.putAll(this.manifest);
+        this.manifest.clear();
+        this.manifest.putAll(merged);
+        evict();
+    }
+
+    private void writeManifest() {
+        this.removedKeys.clear();
+        JSONArray entries = new JSONArray();
+        for (Map.Entry<String, ManifestEntry> entry : this.manifest.entrySet()) {
+            JSONArray json = new JSONArray();
+            json.set(0, new JSONString(entry.getKey()));
+            json.set(1, new JSONNumber(entry.getValue().bytes));
+            json.set(2, new JSONNumber(entry.getValue().expires));
+            entries.set(entries.size(), json);
+        }
+        JSONObject json = new JSONObject();
+        json.put("v", new JSONString(this.version));
+        json.put("e", entries);
+        this.store.put(this.manifestKey, json.toString());
+    }
+
+}
@@ -0,0 +1,332 @@
+package org.reactome.web.widgets.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * A sparse row-indexed store of fetched rows. The rows are held in
+ * disjoint spans keyed by the span start row. Overlapping or
+ * adjacent spans are merged when rows are added, so that a request
+ * for any row range can be answered from whatever is held, no
+ * matter which page boundaries the rows were fetched with.
+ *
+ * The store is bounded by a maximum row count and, if a row sizer
+ * is set, by a maximum estimated byte count. When a limit is
+ * exceeded, the rows furthest from the most recently accessed row
+ * are evicted first.
+ *
+ * This class has no GWT dependencies.
+ */
+public class RowStore<T> {
+
+    /**
+     * A contiguous row range. The rows are null if the range is
+     * not held in the store.
+     */
+    public static class Segment<T> {
+        private final int start;
+        private final int length;
+        private final List<T> rows;
+
+        private Segment(int start, int length, List<T> rows) {
+            this.start = start;
+            this.length = length;
+            this.rows = rows;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * @return the held rows, or null if the segment is missing
+         */
+        public List<T> getRows() {
+            return rows;
+        }
+
+        public boolean isMissing() {
+            return rows == null;
+        }
+
+    }
+
+    private final TreeMap<Integer, List<T>> spans =
+            new TreeMap<Integer, List<T>>();
+
+    private int maxRows;
+
+    private long maxBytes;
+
+    private ToIntFunction<T> sizer;
+
+    private int rowCount;
+
+    private long byteCount;
+
+    /**
+     * The most recently accessed row, used to pick eviction victims.
+     */
+    private int accessRow;
+
+    /**
+     * Creates a store limited to the given number of rows.
+     *
+     * @param maxRows the maximum number of rows to hold
+     */
+    public RowStore(int maxRows) {
+        this(maxRows, 0, null);
+    }
+
+    /**
+     * Creates a store limited to the given number of rows and
+     * estimated bytes.
+     *
+     * @param maxRows the maximum number of rows to hold
+     * @param maxBytes the maximum estimated size, or zero for no
+     *      byte limit
+     * @param sizer the row size estimator, required if there is
+     *      a byte limit
+     */
+    public RowStore(int maxRows, long maxBytes, ToIntFunction<T> sizer) {
+        setLimits(maxRows, maxBytes, sizer);
+    }
+
+    /**
+     * Sets the store limits, evicting rows if necessary.
+     *
+     * @param maxRows the maximum number of rows to hold
+     * @param maxBytes the maximum estimated size, or zero for no
+     *      byte limit
+     * @param sizer the row size estimator, required if there is
+     *      a byte limit
+     */
+    public void setLimits(int maxRows, long maxBytes, ToIntFunction<T> sizer) {
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException(
+                    "The row store maximum row count must be positive: " + maxRows);
+        }
+        if (maxBytes > 0 && sizer == null) {
+            throw new IllegalArgumentException(
+                    "The row store byte limit requires a row sizer");
+        }
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+        this.byteCount = 0;
+        if (sizer != null) {
+            for (List<T> rows : spans.values()) {
+                this.byteCount += sizeOf(rows);
+            }
+        }
+        evict();
+    }
+
+    /**
+     * @return the number of rows held
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the estimated size of the rows held, or zero if there
+     *      is no row sizer
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Adds the given rows starting at the given row index. Rows which
+     * are already held in the given range are replaced.
+     *
+     * @param start the first row index
+     * @param rows the rows to add
+     */
+    public void put(int start, List<T> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int end = start + rows.size();
+        // The merged span covers every held span which overlaps
+        // or abuts the new rows.
+        int mergedStart = start;
+        int mergedEnd = end;
+        Map.Entry<Integer, List<T>> floor = spans.floorEntry(start);
+        if (floor != null && floor.getKey() + floor.getValue().size() >= start) {
+            mergedStart = floor.getKey();
+        }
+        List<List<T>> merged = new ArrayList<List<T>>();
+        List<Integer> mergedStarts = new ArrayList<Integer>();
+        Iterator<Map.Entry<Integer, List<T>>> iter =
+                spans.subMap(mergedStart, true, end, true).entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<Integer, List<T>> entry = iter.next();
+            List<T> spanRows = entry.getValue();
+            mergedStarts.add(entry.getKey());
+            merged.add(spanRows);
+            mergedEnd = Math.max(mergedEnd, entry.getKey() + spanRows.size());
+            rowCount -= spanRows.size();
+            byteCount -= sizeOf(spanRows);
+            iter.remove();
+        }
+        List<T> mergedRows = new ArrayList<T>(mergedEnd - mergedStart);
+        for (int i = mergedStart; i < start; i++) {
+            mergedRows.add(null);
+        }
+        mergedRows.addAll(rows);
+        for (int i = end; i < mergedEnd; i++) {
+            mergedRows.add(null);
+        }
+        // Fill in the held rows outside of the new range.
+        for (int i = 0; i < merged.size(); i++) {
+            int spanStart = mergedStarts.get(i);
+            List<T> spanRows = merged.get(i);
+            for (int j = 0; j < spanRows.size(); j++) {
+                int row = spanStart + j;
+                if (row < start || row >= end) {
+                    mergedRows.set(row - mergedStart, spanRows.get(j));
+                }
+            }
+        }
+        spans.put(mergedStart, mergedRows);
+        rowCount += mergedRows.size();
+        byteCount += sizeOf(mergedRows);
+        accessRow = start;
+        evict();
+    }
+
+    /**
+     * Returns the rows in the given range if and only if every row
+     * in the range is held.
+     *
+     * @param start the first row index
+     * @param length the number of rows
+     * @return the rows, or null if any row is missing
+     */
+    public List<T> get(int start, int length) {
+        List<Segment<T>> segments = segment(start, length);
+        if (segments.size() == 1 && !segments.get(0).isMissing()) {
+            return segments.get(0).getRows();
+        }
+        return length == 0 ? Collections.<T>emptyList() : null;
+    }
+
+    /**
+     * Splits the given range into contiguous held and missing
+     * segments in row order.
+     *
+     * @param start the first row index
+     * @param length the number of rows
+     * @return the segments
+     */
+    public List<Segment<T>> segment(int start, int length) {
+        List<Segment<T>> segments = new ArrayList<Segment<T>>();
+        if (length <= 0) {
+            return segments;
+        }
+        accessRow = start;
+        int end = start + length;
+        int next = start;
+        Integer from = spans.floorKey(start);
+        if (from == null) {
+            from = start;
+        }
+        for (Map.Entry<Integer, List<T>> entry : spans.subMap(from, true, end, false).entrySet()) {
+            int spanStart = entry.getKey();
+            List<T> spanRows = entry.getValue();
+            int spanEnd = spanStart + spanRows.size();
+            if (spanEnd <= next) {
+                continue;
+            }
+            if (spanStart > next) {
+                segments.add(new Segment<T>(next, spanStart - next, null));
+                next = spanStart;
+            }
+            int segEnd = Math.min(spanEnd, end);
+            List<T> rows = spanRows.subList(next - spanStart, segEnd - spanStart);
+            segments.add(new Segment<T>(next, segEnd - next, rows));
+            next = segEnd;
+        }
+        if (next < end) {
+            segments.add(new Segment<T>(next, end - next, null));
+        }
+        return segments;
+    }
+
+    /**
+     * Removes all rows.
+     */
+    public void clear() {
+        spans.clear();
+        rowCount = 0;
+        byteCount = 0;
+        accessRow = 0;
+    }
+
+    private boolean isOverLimit() {
+        return rowCount > maxRows || (maxBytes > 0 && byteCount > maxBytes);
+    }
+
+    private void evict() {
+        // Drop whole spans furthest from the access point first.
+        while (isOverLimit() && spans.size() > 1) {
+            Map.Entry<Integer, List<T>> first = spans.firstEntry();
+            Map.Entry<Integer, List<T>> last = spans.lastEntry();
+            int firstDistance = accessRow - (first.getKey() + first.getValue().size());
+            int lastDistance = last.getKey() - accessRow;
+            Map.Entry<Integer, List<T>> victim =
+                    firstDistance > lastDistance ? first : last;
+            spans.remove(victim.getKey());
+            rowCount -= victim.getValue().size();
+            byteCount -= sizeOf(victim.getValue());
+        }
+        // Trim the remaining span from the end further from the
+        // access point.
+        if (isOverLimit()) {
+            Map.Entry<Integer, List<T>> entry = spans.firstEntry();
+            int spanStart = entry.getKey();
+            List<T> rows = new ArrayList<T>(entry.getValue());
+            spans.remove(spanStart);
+            while (isOverLimit() && !rows.isEmpty()) {
+                int spanEnd = spanStart + rows.size();
+                T removed;
+                if (accessRow - spanStart > spanEnd - 1 - accessRow) {
+                    removed = rows.remove(0);
+                    spanStart++;
+                } else {
+                    removed = rows.remove(rows.size() - 1);
+                }
+                rowCount--;
+                if (sizer != null) {
+                    byteCount -= sizer.applyAsInt(removed);
+                }
+            }
+            if (!rows.isEmpty()) {
+                spans.put(spanStart, rows);
+            }
+        }
+    }
+
+    private long sizeOf(List<T> rows) {
+        if (sizer == null) {
+            return 0;
+        }
+        long size = 0;
+        for (T row : rows) {
+            size += sizer.applyAsInt(row);
+        }
+        return size;
+    }
+
+}
@@ -2,7 +2,12 @@ package org.reactome.web.widgets.search;
 
 import java.util.function.Consumer;
 
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.event.dom.client.DomEvent;
+import com.google.gwt.event.dom.client.KeyCodes;
+import com.google.gwt.event.dom.client.KeyDownEvent;
+import com.google.gwt.event.dom.client.KeyDownHandler;
 import com.google.gwt.event.shared.EventHandler;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.TextBox;
@@ -18,6 +23,13 @@ import com.google.gwt.user.client.ui.TextBox;
  * <li>the input is at least three characters long</li>
  * </ul>
  *
+ * The delay and minimum input length are determined by a
+ * {@link DebouncePolicy}, by default a {@link FixedDebouncePolicy}.
+ * An {@link AdaptiveDebouncePolicy} tunes the delay from the typing
+ * cadence and search latency. Pressing Enter or pasting text
+ * searches immediately without waiting for the delay. The
+ * debounce decisions are made by a {@link Debouncer}.
+ *
  * @author Fred Loney <loneyf@ohsu.edu>
  */
 public class SearchBox extends TextBox {
@@ -26,60 +38,6 @@ public class SearchBox extends TextBox {
     private static final int DEF_DELAY = 250;
     private static final int MIN_INPUT_LEN = 3;
     
-    private class ValueChecker {
-        private int delay;
-        private Timer timer;
-        private String value;
-        private boolean start = true;
-
-        public ValueChecker(int delay) {
-            this.delay = delay;
-            this.timer = new Timer() {
-                
-                @Override
-                public void run() {
-                    // Recheck.
-                    SearchBox.this.checkContent();
-                }
-                
-            };
-        }
-        
-        public boolean check(String value) {
-            if (this.start) {
-                // Start the timer.
-                this.start = false;
-                this.timer.schedule(this.delay);
-                return false;
-            }
-            boolean isChanged = isChanged(value);
-            if (this.timer.isRunning()) {
-                // Need to wait.
-                if (isChanged) {
-                    this.timer.schedule(this.delay);
-                }
-                return false;
-            } else if (isActionable(this.value) || isActionable(value)) {
-                // The input is or was at least 3 characters.
-                if (isChanged) {
-                    // We have a winner; reset the value and start over.
-                    this.start = true;
-                    this.value = value;
-                }
-                return isChanged;
-            } else {
-                // Not enough characters; restart the timer.
-                this.timer.schedule(this.delay);
-                return false;
-            }
-        }
-        
-        private boolean isChanged(String value) {
-            return value == null ? this.value != null : !value.equals(this.value);
-        }
-        
-     }
-
     /**
      * This InputEvent class is used internally only be the search box to
      * capture user text input actions.
@@ -111,8 +69,39 @@ public class SearchBox extends TextBox {
         }
 
     }    
+
+    /**
+     * This PasteEvent class is used internally only be the search box to
+     * capture user paste actions.
+     */
+    private static class PasteEvent extends DomEvent<PasteEvent.PasteHandler> {
+
+        private static final Type<PasteHandler> TYPE =
+                new Type<PasteHandler>("paste", new PasteEvent());
+
+        interface PasteHandler extends EventHandler {
+
+            void onPaste(PasteEvent event);
+
+        }
+
+        public static Type<PasteHandler> getType() {
+            return TYPE;
+        }
+
+        @Override
+        public final Type<PasteHandler> getAssociatedType() {
+            return TYPE;
+        }
+
+        @Override
+        protected void dispatch(PasteHandler handler) {
+            handler.onPaste(this);
+        }
+
+    }
  
-    private ValueChecker checker;
+    private Debouncer debouncer;
     private Consumer<String> consumer;
 
     public SearchBox(Consumer<String> consumer) {
@@ -120,8 +109,39 @@ public class SearchBox extends TextBox {
     }
 
     public SearchBox(Consumer<String> consumer, int searchDelay) {
+        this(consumer, new FixedDebouncePolicy(searchDelay, MIN_INPUT_LEN));
+    }
+
+    public SearchBox(Consumer<String> consumer, DebouncePolicy policy) {
         this.consumer = consumer;
-        this.checker = new ValueChecker(searchDelay);
+        final Timer timer = new Timer() {
+
+            @Override
+            public void run() {
+                // Recheck.
+                SearchBox.this.checkContent();
+            }
+
+        };
+        Debouncer.Timer debounceTimer = new Debouncer.Timer() {
+
+            @Override
+            public void schedule(int delay) {
+                timer.schedule(delay);
+            }
+
+            @Override
+            public void cancel() {
+                timer.cancel();
+            }
+
+            @Override
+            public boolean isRunning() {
+                return timer.isRunning();
+            }
+
+        };
+        this.debouncer = new Debouncer(policy, debounceTimer);
         getElement().setPropertyString("placeholder", OPENING_TEXT);
         // Plug into user text entry to detect when to recognize when
         // the entry constitutes an actionable search term.
@@ -130,27 +150,76 @@ public class SearchBox extends TextBox {
 
             @Override
             public void onInput(InputEvent event) {
+                SearchInstrumentation.getMetrics().onKeystroke();
+                getPolicy().onInput(System.currentTimeMillis());
                 checkContent();
             }
 
         };
         addDomHandler(handler, InputEvent.getType());
+        // Enter searches immediately.
+        addKeyDownHandler(new KeyDownHandler() {
+
+            @Override
+            public void onKeyDown(KeyDownEvent event) {
+                if (event.getNativeKeyCode() == KeyCodes.KEY_ENTER) {
+                    flushContent();
+                }
+            }
+
+        });
+        // So does a paste, once the pasted text is in the box.
+        PasteEvent.PasteHandler pasteHandler = new PasteEvent.PasteHandler() {
+
+            @Override
+            public void onPaste(PasteEvent event) {
+                Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+                    @Override
+                    public void execute() {
+                        flushContent();
+                    }
+
+                });
+            }
+
+        };
+        addDomHandler(pasteHandler, PasteEvent.getType());
+    }
+
+    /**
+     * @return the debounce policy
+     */
+    public DebouncePolicy getPolicy() {
+        return this.debouncer.getPolicy();
+    }
+
+    /**
+     * @param policy the debounce policy
+     */
+    public void setPolicy(DebouncePolicy policy) {
+        this.debouncer.setPolicy(policy);
     }
  
     private void checkContent() {
+        accept(this.debouncer.check(getText()));
+    }
+
+    private void flushContent() {
+        accept(this.debouncer.flush(getText()));
+    }
+
+    private void accept(boolean isChanged) {
         String value = getText();
-        if (this.checker.check(value)) {
+        if (isChanged) {
+            SearchInstrumentation.getMetrics().onDebounced();
             // If there aren't enough characters, then clear the search
             // by returning a null.
-            if (!isActionable(value)) {
+            if (!this.debouncer.isActionable(value)) {
                 value = null;
             }
             this.consumer.accept(value);
         }
     }
 
-    private boolean isActionable(String value) {
-        return !(value == null || value.length() < MIN_INPUT_LEN);
-    }
-
 }
@@ -1,26 +1,495 @@
 package org.reactome.web.widgets.search;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
 
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.user.cellview.client.AbstractHasData;
+import com.google.gwt.user.cellview.client.AbstractHasData.RedrawEvent;
 import com.google.gwt.view.client.AsyncDataProvider;
 import com.google.gwt.view.client.HasData;
 import com.google.gwt.view.client.Range;
 
+/**
+ * The suggestions data provider. Fetched rows are held in a sparse
+ * {@link RowStore}, so that a visible range is answered from any
+ * rows already held and only the missing sub-ranges are searched.
+ *
+ * Each term change starts a new search generation. Searches which
+ * are still pending from an earlier generation are cancelled, and
+ * their late responses are discarded.
+ *
+ * Searches are submitted through a {@link SearchScheduler}, by
+ * default the scheduler shared by all providers of the same
+ * {@link Searcher}.
+ *
+ * If prefetching is enabled, then the pages adjacent to the visible
+ * page are searched at {@link SearchPriority#IDLE} priority after the
+ * visible page is displayed.
+ *
+ * If the searcher is a {@link StreamingSearcher}, then each result
+ * chunk is displayed as it arrives.
+ *
+ * If the searcher returns a {@link SearchResult#getNextCursor()},
+ * then the provider remembers the cursor for the row at which it
+ * resumes. A later search which starts at that row, e.g. for the
+ * next page or for a previously visited page, is submitted with the
+ * cursor. Other searches, e.g. a jump to the last page, page by
+ * offset.
+ *
+ * By default, every page search requests the exact row count. The
+ * {@link CountMode} can defer the count, so that the first page is
+ * displayed with an estimated or lower bound row count, which the
+ * displays show as inexact. The exact count is then searched
+ * separately.
+ *
+ * Complete results can be cached in memory across terms by a
+ * {@link SearchResultCache} and across sessions by a
+ * {@link PersistentResultCache}.
+ *
+ * The provider reports the row store lookups and the page render
+ * times of cell widget displays to the {@link SearchInstrumentation}
+ * metrics sink. The late responses of cancelled searches are
+ * reported by the {@link SearchScheduler}.
+ */
 public class SearchDataProvider extends AsyncDataProvider<Suggestion> {
 
-    private Searcher searcher;
+    /**
+     * The default maximum number of rows held for the current term.
+     */
+    public static final int DEF_MAX_ROWS = 5000;
+
+    /**
+     * How the row count of a term is obtained.
+     */
+    public enum CountMode {
+
+        /**
+         * Every page search requests the exact count.
+         */
+        EXACT,
+
+        /**
+         * The page searches do not require an exact count. If a page
+         * arrives with an estimated or missing count, then the exact
+         * count is searched at {@link SearchPriority#IDLE} priority.
+         */
+        DEFERRED,
+
+        /**
+         * The page searches do not require an exact count. The exact
+         * count is searched only when
+         * {@link SearchDataProvider#requestExactCount()} is called,
+         * e.g. when the user goes to the last page.
+         */
+        ON_DEMAND
+
+    }
+
+    /**
+     * A rough estimate of the suggestion memory footprint, for use
+     * as a {@link RowStore} byte limit sizer.
+     */
+    public static final ToIntFunction<Suggestion> SUGGESTION_SIZER =
+            new ToIntFunction<Suggestion>() {
+
+        @Override
+        public int applyAsInt(Suggestion suggestion) {
+            // Two bytes per character plus a nominal object overhead.
+            int size = 64 + 2 * suggestion.getTitle().length();
+            for (String secondary : suggestion.getSecondary()) {
+                size += 16 + 2 * secondary.length();
+            }
+            return size;
+        }
+
+    };
+
+    private SearchScheduler scheduler;
     private SearchParameters searchParameters;
-    private Map<Integer, List<Suggestion>> cache =
-            new HashMap<Integer, List<Suggestion>>();
+    private RowStore<Suggestion> store =
+            new RowStore<Suggestion>(DEF_MAX_ROWS);
+    private SearchResultCache resultCache;
+    private PersistentResultCache persistentCache;
+    private SuggestionMatcher refinementMatcher;
+    /**
+     * The normalized term whose every match is held in
+     * {@link #complete}, or null if there is no complete result set.
+     */
+    private String completeTerm;
+    private List<Suggestion> complete;
+    /**
+     * The search generation, incremented on each term change.
+     */
+    private int generation;
+    private Set<PendingSearch> pending = new HashSet<PendingSearch>();
+    /**
+     * The cursors of the current generation keyed by the row at which
+     * they resume.
+     */
+    private Map<Integer, String> cursors = new HashMap<Integer, String>();
+    /**
+     * The configured page size. The visible range can be longer, e.g.
+     * when a scroller increases the range.
+     */
+    private final int pageSize;
+    private int prefetchAhead;
+    private boolean prefetchBehind;
+    private boolean isPrefetchScheduled;
+    private IntConsumer latencyListener;
+    private CountMode countMode = CountMode.EXACT;
+    /**
+     * Whether the row count of the current generation is known.
+     */
+    private boolean isRowCountKnown;
+    /**
+     * The largest inexact row count of the current generation.
+     */
+    private int rowCountBound;
+    /**
+     * The pending exact count search of the current generation, or
+     * null if there is none.
+     */
+    private CountSearch countSearch;
+    /**
+     * The actions to run if the exact count of the current generation
+     * cannot be obtained.
+     */
+    private List<Runnable> countFailureListeners = new ArrayList<Runnable>();
+    /**
+     * The time since the rows to render arrived, or null if there
+     * are no rows awaiting a redraw.
+     */
+    private Duration renderDuration;
+    private int renderRowCount;
+
+    /**
+     * A search in progress for the current generation. The result
+     * chunks are displayed as they arrive.
+     */
+    private class PendingSearch extends SearchResultCollector {
+        private final int generation;
+        private final SearchParameters parameters;
+        private final SearchPriority priority;
+        private SearchRequest request;
+        private Duration duration;
+        private boolean done;
+
+        private PendingSearch(SearchParameters parameters, SearchPriority priority) {
+            this.generation = SearchDataProvider.this.generation;
+            this.parameters = parameters;
+            this.priority = priority;
+        }
+
+        private void submit() {
+            this.duration = new Duration();
+            this.request = scheduler.submit(this.parameters, this.priority, this);
+            // The searcher might have responded synchronously.
+            if (!this.done) {
+                pending.add(this);
+            }
+        }
+
+        /**
+         * @return whether the search belongs to the current generation
+         */
+        private boolean isCurrent() {
+            return this.generation == SearchDataProvider.this.generation;
+        }
+
+        @Override
+        public void onChunk(int offset, List<Suggestion> suggestions) {
+            super.onChunk(offset, suggestions);
+            // Discard an out-of-date response.
+            if (isCurrent()) {
+                int start = this.parameters.getStart();
+                // Until the count arrives, the row count is a lower bound.
+                updateRowCountBound(start + getEntries().size());
+                updateRowData(start + offset, suggestions);
+            }
+        }
+
+        @Override
+        public void onEstimate(int numFound) {
+            super.onEstimate(numFound);
+            if (isCurrent()) {
+                updateRowCountBound(numFound);
+            }
+        }
+
+        @Override
+        public void onCount(int numFound) {
+            super.onCount(numFound);
+            if (isCurrent()) {
+                isRowCountKnown = true;
+                updateRowCount(numFound, true);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            super.onComplete();
+            this.done = true;
+            pending.remove(this);
+            // A failed search is neither cached nor displayed. The
+            // missing rows are searched again when they are next in
+            // range.
+            if (isFailed()) {
+                return;
+            }
+            if (latencyListener != null) {
+                latencyListener.accept(this.duration.elapsedMillis());
+            }
+            if (resultCache != null) {
+                resultCache.put(this.parameters, this);
+            }
+            if (persistentCache != null) {
+                persistentCache.put(this.parameters, this);
+            }
+            if (isCurrent()) {
+                complete(this.parameters, this);
+                if (this.priority == SearchPriority.VISIBLE) {
+                    schedulePrefetch();
+                }
+            }
+        }
+
+        private void cancel() {
+            this.done = true;
+            this.request.cancel();
+        }
+
+    }
+
+    /**
+     * A search for the exact row count of the current generation.
+     * The search requests no rows.
+     */
+    private class CountSearch implements Consumer<SearchResult> {
+        private final int generation;
+        private final SearchPriority priority;
+        private SearchRequest request;
+        private boolean done;
+
+        private CountSearch(SearchPriority priority) {
+            this.generation = SearchDataProvider.this.generation;
+            this.priority = priority;
+        }
+
+        private void submit() {
+            SearchParameters parameters =
+                    new SearchParameters(searchParameters.getTerm(), 0, 0);
+            this.request = scheduler.submit(parameters, this.priority, this);
+            // The searcher might have responded synchronously.
+            if (!this.done) {
+                countSearch = this;
+            }
+        }
+
+        @Override
+        public void accept(SearchResult result) {
+            this.done = true;
+            if (countSearch == this) {
+                countSearch = null;
+            }
+            if (this.generation != SearchDataProvider.this.generation || isRowCountKnown) {
+                return;
+            }
+            if (!result.isFailed() && result.getNumFound() != null &&
+                    result.isNumFoundExact()) {
+                isRowCountKnown = true;
+                countFailureListeners.clear();
+                updateRowCount(result.getNumFound(), true);
+            } else {
+                // The searcher failed or could not count the matches.
+                fireCountFailure();
+            }
+        }
+
+        private void cancel() {
+            this.done = true;
+            this.request.cancel();
+        }
+
+    }
 
     public SearchDataProvider(Searcher searcher, int pageSize) {
-        this.searcher = searcher;
+        this.scheduler = SearchScheduler.getShared(searcher);
         this.searchParameters = new SearchParameters();
         this.searchParameters.setSize(new Integer(pageSize));
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sets the limits on the rows held for the current term.
+     *
+     * @param maxRows the maximum number of rows
+     * @param maxBytes the maximum estimated size as computed by
+     *      {@link #SUGGESTION_SIZER}, or zero for no byte limit
+     */
+    public void setStoreLimits(int maxRows, long maxBytes) {
+        this.store.setLimits(maxRows, maxBytes,
+                maxBytes > 0 ? SUGGESTION_SIZER : null);
+    }
+
+    /**
+     * Replaces the shared scheduler, e.g. with a scheduler that has
+     * different limits.
+     *
+     * @param scheduler the scheduler for this provider's searcher
+     */
+    public void setScheduler(SearchScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Opts into a cross-term result cache. Unlike the row store,
+     * the result cache is not cleared when the term changes.
+     *
+     * @param resultCache the result cache, e.g. the
+     *      {@link SearchResultCache#getShared(Searcher)} cache,
+     *      or null to disable result caching
+     */
+    public void setResultCache(SearchResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Opts into a cross-session result cache. The persistent cache is
+     * looked up after the result cache, if any. A search is issued
+     * only if the persistent cache does not have the result. Since the
+     * lookup is asynchronous, a persistent cache hit is displayed in a
+     * later browser event loop.
+     *
+     * @param persistentCache the persistent cache, e.g. created by
+     *      {@link PersistentResultCache#create(String, String)}, or
+     *      null to disable persistent caching
+     */
+    public void setPersistentCache(PersistentResultCache persistentCache) {
+        this.persistentCache = persistentCache;
+    }
+
+    /**
+     * Enables refinement mode. If every match of the previous term
+     * was fetched and the new term extends the previous term, then
+     * the new matches are a subset of the previous matches. In that
+     * case, the previous matches are filtered with the given matcher
+     * rather than searched. If the previous result was truncated,
+     * then the new term is searched as usual.
+     *
+     * @param matcher the suggestion matcher, e.g.
+     *      {@link SuggestionMatcher#DEFAULT}, or null to disable
+     *      refinement
+     */
+    public void setRefinementMatcher(SuggestionMatcher matcher) {
+        this.refinementMatcher = matcher;
+        this.completeTerm = null;
+        this.complete = null;
+    }
+
+    /**
+     * Configures prefetching of the pages adjacent to the visible
+     * range. The prefetched pages have the page size given in the
+     * constructor. Prefetching is disabled by default.
+     *
+     * @param pagesAhead the number of following pages to prefetch
+     * @param pageBehind whether to prefetch the preceding page
+     */
+    public void setPrefetch(int pagesAhead, boolean pageBehind) {
+        this.prefetchAhead = pagesAhead;
+        this.prefetchBehind = pageBehind;
+    }
+
+    /**
+     * Sets the listener which is notified of the time taken by each
+     * completed search.
+     *
+     * @param listener the search latency listener, or null for none
+     */
+    public void setLatencyListener(IntConsumer listener) {
+        this.latencyListener = listener;
+    }
+
+    /**
+     * Sets how the row count is obtained for the following terms.
+     * The default mode is {@link CountMode#EXACT}.
+     *
+     * @param countMode the count mode
+     */
+    public void setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+    }
+
+    /**
+     * Searches for the exact row count of the current term at
+     * {@link SearchPriority#VISIBLE} priority, unless the count is
+     * already known. A pending deferred count search is promoted.
+     * This method is typically called when the user goes to the
+     * last page of an inexact row count.
+     */
+    public void requestExactCount() {
+        searchCount(SearchPriority.VISIBLE);
+    }
+
+    /**
+     * Searches for the exact row count as {@link #requestExactCount()}
+     * does. If the count search fails or does not find an exact count,
+     * then the given fallback is run, e.g. to go to the last page of
+     * the inexact row count. The fallback is not run if the term
+     * changes first.
+     *
+     * @param onFailure the action to run if the exact count cannot
+     *      be obtained
+     */
+    public void requestExactCount(Runnable onFailure) {
+        if (this.isRowCountKnown) {
+            return;
+        }
+        this.countFailureListeners.add(onFailure);
+        if (this.searchParameters.getTerm() == null) {
+            fireCountFailure();
+        } else {
+            searchCount(SearchPriority.VISIBLE);
+        }
+    }
+
+    private void fireCountFailure() {
+        List<Runnable> listeners = new ArrayList<Runnable>(this.countFailureListeners);
+        this.countFailureListeners.clear();
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public void addDataDisplay(final HasData<Suggestion> display) {
+        super.addDataDisplay(display);
+        // A cell widget signals the end of the page render.
+        if (display instanceof AbstractHasData) {
+            ((AbstractHasData<Suggestion>) display).addRedrawHandler(new RedrawEvent.Handler() {
+
+                @Override
+                public void onRedraw() {
+                    if (renderDuration != null) {
+                        SearchInstrumentation.getMetrics().onRender(
+                                renderRowCount, renderDuration.elapsedMillis());
+                        renderDuration = null;
+                        renderRowCount = 0;
+                    }
+                }
+
+            });
+        }
     }
 
     @Override
@@ -33,16 +502,82 @@ public class SearchDataProvider extends AsyncDataProvider<Suggestion> {
             // Get the new range.
             Range range = display.getVisibleRange();
             int start = range.getStart();
+            int length = range.getLength();
             this.searchParameters.setStart(start);
-            this.searchParameters.setSize(new Integer(range.getLength()));
-            // Changing the page deselects a selected row.
-            // If this is not done, then the corresponding
-            // row is selected on the new page.
-            List<Suggestion> cached = this.cache.get(start);
-            if (cached == null) {
-                search();
-            } else {
-                updateRowData(start, cached);
+            this.searchParameters.setSize(new Integer(length));
+            // Don't search past the last row, e.g. for a partial
+            // last page.
+            if (display.isRowCountExact()) {
+                length = Math.min(length, display.getRowCount() - start);
+            }
+            // Show the held rows and search for the rest.
+            boolean isMissing = false;
+            for (RowStore.Segment<Suggestion> segment: this.store.segment(start, length)) {
+                if (segment.isMissing()) {
+                    isMissing = true;
+                    search(segment.getStart(), segment.getLength(), SearchPriority.VISIBLE);
+                } else {
+                    startRender(segment.getLength());
+                    super.updateRowData(segment.getStart(), segment.getRows());
+                }
+            }
+            // If the page was entirely held, then warm the next page
+            // now. Otherwise, wait for the search to complete.
+            SearchInstrumentation.getMetrics().onCacheLookup(
+                    SearchMetrics.Cache.ROWS, !isMissing);
+            if (!isMissing) {
+                schedulePrefetch();
+            }
+        }
+    }
+
+    /**
+     * Prefetches the adjacent pages after the browser event loop
+     * has rendered the visible page.
+     */
+    private void schedulePrefetch() {
+        if (this.isPrefetchScheduled || (this.prefetchAhead <= 0 && !this.prefetchBehind)) {
+            return;
+        }
+        this.isPrefetchScheduled = true;
+        final int generation = this.generation;
+        Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+            @Override
+            public void execute() {
+                isPrefetchScheduled = false;
+                // Stop if the term has changed.
+                if (generation == SearchDataProvider.this.generation) {
+                    prefetch();
+                }
+            }
+
+        });
+    }
+
+    private void prefetch() {
+        for (HasData<Suggestion> display : getDataDisplays()) {
+            Range range = display.getVisibleRange();
+            int end = range.getStart() + range.getLength();
+            for (int i = 0; i < this.prefetchAhead; i++) {
+                prefetch(display, end + i * this.pageSize, this.pageSize);
+            }
+            if (this.prefetchBehind) {
+                prefetch(display, range.getStart() - this.pageSize, this.pageSize);
+            }
+        }
+    }
+
+    private void prefetch(HasData<Suggestion> display, int start, int length) {
+        if (start < 0) {
+            return;
+        }
+        if (display.isRowCountExact()) {
+            length = Math.min(length, display.getRowCount() - start);
+        }
+        for (RowStore.Segment<Suggestion> segment: this.store.segment(start, length)) {
+            if (segment.isMissing()) {
+                search(segment.getStart(), segment.getLength(), SearchPriority.IDLE);
             }
         }
     }
@@ -50,41 +585,239 @@ public class SearchDataProvider extends AsyncDataProvider<Suggestion> {
     public void setTerm(String term) {
         this.searchParameters.setTerm(term);
         this.searchParameters.setStart(0);
-        this.cache.clear();
-        
+        this.store.clear();
+        this.cursors.clear();
+        this.isRowCountKnown = false;
+        this.rowCountBound = 0;
+        cancelPending();
+
         if (term == null) {
+            this.completeTerm = null;
+            this.complete = null;
             updateRowCount(0, false);
             updateRowData(0, Collections.emptyList());
+        } else if (!refine(term)) {
+            search(0, this.searchParameters.getSize(), SearchPriority.VISIBLE);
+        }
+    }
+
+    /**
+     * Filters the previous complete result set, if possible.
+     *
+     * @param term the new search term
+     * @return whether the term was refined locally
+     */
+    private boolean refine(String term) {
+        String normalized = SearchResultCache.normalize(term);
+        if (this.refinementMatcher == null || this.complete == null ||
+                !normalized.startsWith(this.completeTerm)) {
+            this.completeTerm = null;
+            this.complete = null;
+            return false;
+        }
+        List<Suggestion> refined = new ArrayList<Suggestion>();
+        for (Suggestion suggestion : this.complete) {
+            if (this.refinementMatcher.matches(term, suggestion)) {
+                refined.add(suggestion);
+            }
+        }
+        this.completeTerm = normalized;
+        this.complete = refined;
+        this.isRowCountKnown = true;
+        updateRowCount(refined.size(), true);
+        updateRowData(0, refined);
+        return true;
+    }
+
+    /**
+     * Starts a new search generation and cancels the searches
+     * pending from the previous generation.
+     */
+    private void cancelPending() {
+        this.generation++;
+        for (PendingSearch search : this.pending) {
+            search.cancel();
+        }
+        this.pending.clear();
+        this.countFailureListeners.clear();
+        if (this.countSearch != null) {
+            this.countSearch.cancel();
+            this.countSearch = null;
+        }
+    }
+
+    /**
+     * Searches for the exact row count of the current term, unless
+     * it is known or is already being searched at the given or a
+     * higher priority.
+     *
+     * @param priority the count search priority
+     */
+    private void searchCount(SearchPriority priority) {
+        if (this.isRowCountKnown || this.searchParameters.getTerm() == null) {
+            return;
+        }
+        CountSearch previous = this.countSearch;
+        if (previous != null && priority.compareTo(previous.priority) >= 0) {
+            return;
+        }
+        // The scheduler shares and promotes a pending search with the
+        // same parameters.
+        new CountSearch(priority).submit();
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Raises the inexact row count of the current generation, unless
+     * the exact count is known.
+     *
+     * @param rowCnt the estimated or lower bound row count
+     */
+    private void updateRowCountBound(int rowCnt) {
+        if (!this.isRowCountKnown && rowCnt > this.rowCountBound) {
+            this.rowCountBound = rowCnt;
+            updateRowCount(rowCnt, false);
+        }
+    }
+
+    private void search(int start, int size, SearchPriority priority) {
+        SearchParameters parameters = new SearchParameters(
+                this.searchParameters.getTerm(), start, size, this.cursors.get(start));
+        parameters.setExactCount(this.countMode == CountMode.EXACT);
+        if (this.resultCache != null) {
+            SearchResult cached = this.resultCache.get(parameters);
+            if (cached != null) {
+                showCached(parameters, cached, priority);
+                return;
+            }
+        }
+        if (this.persistentCache == null) {
+            new PendingSearch(parameters, priority).submit();
         } else {
-            search();
+            lookUp(parameters, priority);
         }
     }
 
-    private void search() {
-        final int start = this.searchParameters.getStart();
-        Consumer<SearchResult> searchConsumer = new Consumer<SearchResult>() {
+    /**
+     * Looks up the persistent cache, and searches on a miss.
+     */
+    private void lookUp(final SearchParameters parameters, final SearchPriority priority) {
+        final int generation = this.generation;
+        this.persistentCache.get(parameters, new Consumer<SearchResult>() {
 
             @Override
-            public void accept(SearchResult searchResult) {
-                // Per the SearchResult interface contract, the default
-                // number found is the entries count.
-               Integer numFound = searchResult.getNumFound();
-               List<Suggestion> entries = searchResult.getEntries();
-               int rowCnt = numFound == null ? entries.size() : numFound.intValue();
-               updateRowCount(rowCnt, true);
-               updateRowData(start, entries);
+            public void accept(SearchResult cached) {
+                // Stop if the term has changed.
+                if (generation != SearchDataProvider.this.generation) {
+                    return;
+                }
+                if (cached == null) {
+                    new PendingSearch(parameters, priority).submit();
+                } else {
+                    if (resultCache != null) {
+                        resultCache.put(parameters, cached);
+                    }
+                    showCached(parameters, cached, priority);
+                }
             }
-            
-        };
-        this.searcher.search(searchParameters, searchConsumer);
+
+        });
+    }
+
+    private void showCached(SearchParameters parameters, SearchResult cached,
+            SearchPriority priority) {
+        show(parameters, cached);
+        if (priority == SearchPriority.VISIBLE) {
+            schedulePrefetch();
+        }
+    }
+
+    private void show(SearchParameters parameters, SearchResult searchResult) {
+        Integer numFound = searchResult.getNumFound();
+        if (numFound != null && searchResult.isNumFoundExact()) {
+            this.isRowCountKnown = true;
+            updateRowCount(numFound, true);
+        }
+        updateRowData(parameters.getStart(), searchResult.getEntries());
+        complete(parameters, searchResult);
+    }
+
+    /**
+     * Finishes displaying a search result.
+     *
+     * @param parameters the search parameters
+     * @param searchResult the search result
+     */
+    private void complete(SearchParameters parameters, SearchResult searchResult) {
+        int start = parameters.getStart();
+        int end = start + searchResult.getEntries().size();
+        // Remember where the following search can resume.
+        String nextCursor = searchResult.getNextCursor();
+        if (nextCursor != null) {
+            this.cursors.put(end, nextCursor);
+        }
+        Integer numFound = searchResult.getNumFound();
+        int rowCnt;
+        if (numFound != null && searchResult.isNumFoundExact()) {
+            rowCnt = numFound.intValue();
+        } else if (parameters.isExactCount()) {
+            // Per the SearchResult interface contract, the default
+            // number found is the entries count.
+            rowCnt = end;
+            this.isRowCountKnown = true;
+            updateRowCount(rowCnt, true);
+        } else if (this.isRowCountKnown) {
+            // The count search has already completed.
+            return;
+        } else if (end == start && start > 0) {
+            // The page is past the last row, e.g. after jumping to
+            // the last page of an overestimate.
+            searchCount(SearchPriority.VISIBLE);
+            return;
+        } else if (parameters.getSize() == null || end < start + parameters.getSize()) {
+            // A partial page ends the rows.
+            rowCnt = end;
+            this.isRowCountKnown = true;
+            updateRowCount(rowCnt, true);
+        } else {
+            // The row count is an estimate or a lower bound.
+            updateRowCountBound(numFound == null ? end : Math.max(end, numFound));
+            if (this.countMode == CountMode.DEFERRED) {
+                searchCount(SearchPriority.IDLE);
+            }
+            return;
+        }
+        // Capture a complete result set for refinement.
+        if (this.refinementMatcher != null) {
+            List<Suggestion> all = this.store.get(0, rowCnt);
+            if (all != null) {
+                this.completeTerm =
+                        SearchResultCache.normalize(this.searchParameters.getTerm());
+                this.complete = new ArrayList<Suggestion>(all);
+            }
+        }
     }
 
     @Override
     public void updateRowData(int start, List<Suggestion> values) {
-        this.cache.put(start, values);
+        this.store.put(start, values);
+        startRender(values.size());
         super.updateRowData(start, values);
     }
-    
-    
+
+    /**
+     * Starts timing the render of the given rows. Rows which arrive
+     * before the next redraw are rendered together.
+     *
+     * @param rowCnt the number of rows to render
+     */
+    private void startRender(int rowCnt) {
+        if (this.renderDuration == null) {
+            this.renderDuration = new Duration();
+        }
+        this.renderRowCount += rowCnt;
+    }
 
 }
@@ -0,0 +1,28 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * Holds the application-wide {@link SearchMetrics} sink. The default
+ * sink is {@link SearchMetrics#NONE}.
+ */
+public class SearchInstrumentation {
+
+    private static SearchMetrics metrics = SearchMetrics.NONE;
+
+    private SearchInstrumentation() {
+    }
+
+    /**
+     * @return the metrics sink
+     */
+    public static SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param metrics the metrics sink, or null to discard the events
+     */
+    public static void setMetrics(SearchMetrics metrics) {
+        SearchInstrumentation.metrics = metrics == null ? SearchMetrics.NONE : metrics;
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * The sink of the search instrumentation events. The search box,
+ * data provider, scheduler, caches and suggestion cell report to the
+ * sink set by {@link SearchInstrumentation#setMetrics(SearchMetrics)}.
+ * Every method has an empty default implementation, so that a sink
+ * implements only the events it records.
+ *
+ * The sink methods are called on the UI thread and should return
+ * quickly.
+ *
+ * @see CountingSearchMetrics
+ */
+public interface SearchMetrics {
+
+    /**
+     * The instrumented caches.
+     */
+    enum Cache {
+
+        /**
+         * The {@link SearchDataProvider} row store of the current term.
+         */
+        ROWS,
+
+        /**
+         * The cross-term {@link SearchResultCache}.
+         */
+        RESULTS,
+
+        /**
+         * The {@link SuggestionCell} render cache.
+         */
+        RENDER
+
+    }
+
+    /**
+     * The sink which discards every event.
+     */
+    static final SearchMetrics NONE = new SearchMetrics() {};
+
+    /**
+     * Records a search box keystroke.
+     */
+    default void onKeystroke() {
+    }
+
+    /**
+     * Records a search box term emitted after the debounce quiet
+     * period. The keystrokes which did not result in a term were
+     * suppressed.
+     */
+    default void onDebounced() {
+    }
+
+    /**
+     * Records a search issued to the searcher.
+     *
+     * @param parameters the search parameters
+     */
+    default void onSearch(SearchParameters parameters) {
+    }
+
+    /**
+     * Records the time taken by the searcher.
+     *
+     * @param latency the search latency in milliseconds
+     */
+    default void onSearchLatency(int latency) {
+    }
+
+    /**
+     * Records a cache lookup.
+     *
+     * @param cache the cache
+     * @param hit whether the lookup was answered by the cache
+     */
+    default void onCacheLookup(Cache cache, boolean hit) {
+    }
+
+    /**
+     * Records a search response which arrived after its search was
+     * cancelled, e.g. because the term changed.
+     */
+    default void onStaleResponse() {
+    }
+
+    /**
+     * Records the time taken to display a page of rows.
+     *
+     * @param rows the number of rows displayed
+     * @param time the time from the rows arriving to the end of the
+     *      redraw in milliseconds
+     */
+    default void onRender(int rows, int time) {
+    }
+
+}
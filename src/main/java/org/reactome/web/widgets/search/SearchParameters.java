@@ -1,17 +1,32 @@
 package org.reactome.web.widgets.search;
 
+import java.util.Objects;
+
 /**
  * The data query search parameters includes the following fields:
  * <p><dl>
  * <dt>term</dt><dd>the search term</dd>
  * <dt>start</dt><dd>the starting offset of the page</dd>
  * <dt>size</dt><dd>the number of page rows to return</dd>
+ * <dt>cursor</dt><dd>the opaque position of the start row</dd>
+ * <dt>exactCount</dt><dd>whether the exact number found is required</dd>
  * <dl></p>
  * 
  * The default start is zero.
+ * The cursor is the {@link SearchResult#getNextCursor()} value of
+ * the result which ended at the start row, or null to page by offset.
+ * A data supplier which supports cursors resumes the search at the
+ * cursor rather than skipping the start rows. The start is still
+ * the offset of the first row. A data supplier which does not
+ * support cursors ignores the cursor.
+ * The exact count is required by default. Otherwise, the data
+ * supplier can return an estimated or no number found, e.g. to
+ * skip an expensive count.
  * If the page size is null, then all rows are returned.
  * The data supplier should raise an error if a request has
  * a missing or empty term.
+ *
+ * Parameters are equal if they have the same field values.
  * 
  * @author Fred Loney <loneyf@ohsu.edu>
  */
@@ -19,6 +34,22 @@ public class SearchParameters {
     private String term;
     private int start = 0;
     private Integer size;
+    private String cursor;
+    private boolean exactCount = true;
+
+    public SearchParameters() {
+    }
+
+    public SearchParameters(String term, int start, Integer size) {
+        this.term = term;
+        this.start = start;
+        this.size = size;
+    }
+
+    public SearchParameters(String term, int start, Integer size, String cursor) {
+        this(term, start, size);
+        this.cursor = cursor;
+    }
 
     public String getTerm() {
         return term;
@@ -44,4 +75,39 @@ public class SearchParameters {
         this.size = size;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isExactCount() {
+        return exactCount;
+    }
+
+    public void setExactCount(boolean exactCount) {
+        this.exactCount = exactCount;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SearchParameters)) {
+            return false;
+        }
+        SearchParameters that = (SearchParameters) other;
+        return start == that.start && exactCount == that.exactCount &&
+                Objects.equals(term, that.term) &&
+                Objects.equals(size, that.size) && Objects.equals(cursor, that.cursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(term, start, size, cursor, exactCount);
+    }
+
 }
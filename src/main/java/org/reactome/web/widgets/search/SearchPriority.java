@@ -0,0 +1,18 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * The {@link SearchScheduler} request priorities in dispatch order.
+ */
+public enum SearchPriority {
+
+    /**
+     * A search for rows which are displayed.
+     */
+    VISIBLE,
+
+    /**
+     * A speculative or background search, e.g. a prefetch.
+     */
+    IDLE
+
+}
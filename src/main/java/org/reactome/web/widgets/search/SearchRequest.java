@@ -0,0 +1,23 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * A handle on a search submitted by
+ * {@link Searcher#request(SearchParameters, java.util.function.Consumer)}.
+ */
+public interface SearchRequest {
+
+    /**
+     * The handle for a search which cannot be cancelled.
+     */
+    static final SearchRequest NONE = () -> {};
+
+    /**
+     * Abandons the search. The implementor should abort the
+     * underlying request, e.g. by calling the GWT
+     * {@link com.google.gwt.http.client.Request#cancel()} method,
+     * and should not call the search consumer thereafter. Calling
+     * this method on a completed or cancelled search has no effect.
+     */
+    void cancel();
+
+}
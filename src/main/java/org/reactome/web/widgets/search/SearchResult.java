@@ -1,18 +1,74 @@
 package org.reactome.web.widgets.search;
 
+import java.util.Collections;
 import java.util.List;
 
 
 /**
  * A search result with a total number of entries available.
  * The default number found is the number of entries.
+ * The number found is exact by default, but can be an estimate if
+ * the search parameters do not require an exact count.
+ * A result can also have a cursor for the following page, which is
+ * null by default.
+ * A search which fails, e.g. on a network error, completes with a
+ * failed result, which is neither cached nor displayed.
  * 
  * @author Fred Loney <loneyf@ohsu.edu>
  */
 public interface SearchResult {
 
+    /**
+     * The result of a failed search, which is empty and does not
+     * have a number found.
+     */
+    static final SearchResult FAILED = new SearchResult() {
+
+        @Override
+        public Integer getNumFound() {
+            return null;
+        }
+
+        @Override
+        public List<Suggestion> getEntries() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isFailed() {
+            return true;
+        }
+
+    };
+
     Integer getNumFound();
 
     List<Suggestion> getEntries();
 
+    /**
+     * @return whether the number found is exact rather than an
+     *      estimate
+     */
+    default boolean isNumFoundExact() {
+        return true;
+    }
+
+    /**
+     * @return the opaque {@link SearchParameters#getCursor()} value
+     *      which resumes the search after the last entry, or null if
+     *      the searcher does not support cursors or there are no
+     *      more entries
+     */
+    default String getNextCursor() {
+        return null;
+    }
+
+    /**
+     * @return whether the search failed, in which case the result
+     *      is empty
+     */
+    default boolean isFailed() {
+        return false;
+    }
+
 }
@@ -0,0 +1,194 @@
+package org.reactome.web.widgets.search;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded least-recently-used cache of search results keyed by the
+ * normalized search term, start and size. Entries expire after the
+ * time-to-live has elapsed.
+ *
+ * A cache is opted into by calling
+ * {@link SearchDataProvider#setResultCache(SearchResultCache)}.
+ * Data providers which search with the same {@link Searcher} can
+ * share results across terms and across combo boxes by using the
+ * {@link #getShared(Searcher)} cache.
+ */
+public class SearchResultCache {
+
+    /**
+     * The default maximum number of cached results.
+     */
+    public static final int DEF_MAX_ENTRIES = 500;
+
+    /**
+     * The default time-to-live in milliseconds.
+     */
+    public static final int DEF_TTL = 10 * 60 * 1000;
+
+    /**
+     * The application-wide caches, one per searcher. The searchers
+     * are expected to be long-lived.
+     */
+    private static final Map<Searcher, SearchResultCache> SHARED =
+            new IdentityHashMap<Searcher, SearchResultCache>();
+
+    private static class Entry {
+        private final SearchResult result;
+        private final long expires;
+
+        private Entry(SearchResult result, long expires) {
+            this.result = result;
+            this.expires = expires;
+        }
+    }
+
+    private final int maxEntries;
+
+    private final int ttl;
+
+    private final Map<String, Entry> entries;
+
+    private int hitCount;
+
+    private int missCount;
+
+    /**
+     * Creates a cache with the default size and time-to-live.
+     */
+    public SearchResultCache() {
+        this(DEF_MAX_ENTRIES, DEF_TTL);
+    }
+
+    /**
+     * @param maxEntries the maximum number of cached results
+     * @param ttl the time-to-live in milliseconds, or zero if
+     *      entries do not expire
+     */
+    public SearchResultCache(int maxEntries, int ttl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException(
+                    "The result cache maximum entry count must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        // An access-ordered map evicts the least recently used entry.
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > SearchResultCache.this.maxEntries;
+            }
+
+        };
+    }
+
+    /**
+     * Returns the application-wide cache for the given searcher,
+     * creating it with the default settings if necessary.
+     *
+     * @param searcher the searcher whose results are cached
+     * @return the shared cache
+     */
+    public static SearchResultCache getShared(Searcher searcher) {
+        SearchResultCache cache = SHARED.get(searcher);
+        if (cache == null) {
+            cache = new SearchResultCache();
+            SHARED.put(searcher, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Normalizes the search term by trimming, collapsing whitespace
+     * and converting to lower case.
+     *
+     * @param term the search term
+     * @return the normalized term
+     */
+    public static String normalize(String term) {
+        return term == null ? null : term.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    /**
+     * @param parameters the search parameters
+     * @return the cached unexpired result, or null if there is none
+     */
+    public SearchResult get(SearchParameters parameters) {
+        String key = keyFor(parameters);
+        Entry entry = this.entries.get(key);
+        if (entry != null && this.ttl > 0 && entry.expires < System.currentTimeMillis()) {
+            this.entries.remove(key);
+            entry = null;
+        }
+        SearchInstrumentation.getMetrics().onCacheLookup(
+                SearchMetrics.Cache.RESULTS, entry != null);
+        if (entry == null) {
+            this.missCount++;
+            return null;
+        }
+        this.hitCount++;
+        return entry.result;
+    }
+
+    /**
+     * @param parameters the search parameters
+     * @param result the result to cache, which is ignored if it is
+     *      failed
+     */
+    public void put(SearchParameters parameters, SearchResult result) {
+        if (result.isFailed()) {
+            return;
+        }
+        long expires = this.ttl > 0 ? System.currentTimeMillis() + this.ttl : 0;
+        this.entries.put(keyFor(parameters), new Entry(result, expires));
+    }
+
+    /**
+     * Removes all entries. The hit and miss counts are retained.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * @return the number of cached results
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return the number of {@link #get(SearchParameters)} calls which
+     *      found a result
+     */
+    public int getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * @return the number of {@link #get(SearchParameters)} calls which
+     *      did not find a result
+     */
+    public int getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * The cursor is not part of the key, since a cursor selects the
+     * same rows as its start offset. A result which need not have an
+     * exact count is keyed separately.
+     *
+     * @param parameters the search parameters
+     * @return the key of the normalized parameters
+     */
+    static String keyFor(SearchParameters parameters) {
+        return normalize(parameters.getTerm()) + '\u0000' +
+                parameters.getStart() + ':' + parameters.getSize() +
+                (parameters.isExactCount() ? "" : "~");
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.reactome.web.widgets.search;
+
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONBoolean;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONString;
+
+/**
+ * Encodes search results as text for the {@link PersistentResultCache}.
+ */
+public interface SearchResultCodec {
+
+    /**
+     * The default codec encodes a result as the JSON viewed by a
+     * {@link JsSearchResult}, so that decoding does not copy the
+     * suggestions. The suggestion keys must be strings, integers,
+     * longs or doubles. A key which is not a string is encoded with
+     * its type, so that the decoded key equals the encoded key.
+     */
+    static final SearchResultCodec JSON = new SearchResultCodec() {
+
+        @Override
+        public String encode(SearchResult result) {
+            JSONObject json = new JSONObject();
+            if (result.getNumFound() != null) {
+                json.put("numFound", new JSONNumber(result.getNumFound()));
+                if (!result.isNumFoundExact()) {
+                    json.put("numFoundExact", JSONBoolean.getInstance(false));
+                }
+            }
+            if (result.getNextCursor() != null) {
+                json.put("nextCursor", new JSONString(result.getNextCursor()));
+            }
+            JSONArray entries = new JSONArray();
+            for (Suggestion suggestion : result.getEntries()) {
+                JSONObject entry = new JSONObject();
+                putKey(entry, suggestion.getKey());
+                entry.put("title", new JSONString(suggestion.getTitle()));
+                if (suggestion.getImage() != null) {
+                    entry.put("image", new JSONString(suggestion.getImage().asString()));
+                }
+                JSONArray secondary = new JSONArray();
+                for (String text : suggestion.getSecondary()) {
+                    secondary.set(secondary.size(), new JSONString(text));
+                }
+                entry.put("secondary", secondary);
+                entries.set(entries.size(), entry);
+            }
+            json.put("entries", entries);
+            return json.toString();
+        }
+
+        @Override
+        public SearchResult decode(String text) {
+            return JsSearchResult.parse(text);
+        }
+
+        private void putKey(JSONObject entry, Object key) {
+            if (key == null) {
+                return;
+            }
+            if (key instanceof String) {
+                entry.put("key", new JSONString((String) key));
+            } else if (key instanceof Integer) {
+                entry.put("key", new JSONNumber((Integer) key));
+                entry.put("keyType", new JSONString(JsSuggestion.INT_KEY));
+            } else if (key instanceof Long) {
+                // A JSON number cannot hold every long.
+                entry.put("key", new JSONString(key.toString()));
+                entry.put("keyType", new JSONString(JsSuggestion.LONG_KEY));
+            } else if (key instanceof Double) {
+                entry.put("key", new JSONNumber((Double) key));
+                entry.put("keyType", new JSONString(JsSuggestion.DOUBLE_KEY));
+            } else {
+                String msg = "The suggestion key type cannot be encoded: " +
+                        key.getClass().getName();
+                throw new IllegalArgumentException(msg);
+            }
+        }
+
+    };
+
+    /**
+     * @param result the search result
+     * @return the encoded result
+     * @throws IllegalArgumentException if the result cannot be encoded
+     */
+    String encode(SearchResult result);
+
+    /**
+     * @param text the encoded result
+     * @return the decoded result
+     * @throws RuntimeException if the text cannot be decoded
+     */
+    SearchResult decode(String text);
+
+}
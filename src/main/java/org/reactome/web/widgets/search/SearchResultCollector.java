@@ -0,0 +1,133 @@
+package org.reactome.web.widgets.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link SearchStream} which collects the streamed chunks into a
+ * {@link SearchResult}. If the completed stream leaves a gap in the
+ * entries, e.g. because a chunk was lost, then the result is failed,
+ * so that it is neither cached nor displayed with missing rows.
+ */
+public class SearchResultCollector implements SearchStream, SearchResult {
+
+    private final List<Suggestion> entries = new ArrayList<Suggestion>();
+
+    private Integer numFound;
+
+    private boolean isNumFoundExact = true;
+
+    private String nextCursor;
+
+    private boolean complete;
+
+    private boolean failed;
+
+    @Override
+    public void onChunk(int offset, List<Suggestion> suggestions) {
+        // Pad a gap left by an out-of-order chunk.
+        while (this.entries.size() < offset) {
+            this.entries.add(null);
+        }
+        for (int i = 0; i < suggestions.size(); i++) {
+            int index = offset + i;
+            if (index < this.entries.size()) {
+                this.entries.set(index, suggestions.get(i));
+            } else {
+                this.entries.add(suggestions.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void onCount(int numFound) {
+        this.numFound = numFound;
+        this.isNumFoundExact = true;
+    }
+
+    @Override
+    public void onEstimate(int numFound) {
+        this.numFound = numFound;
+        this.isNumFoundExact = false;
+    }
+
+    @Override
+    public void onCursor(String cursor) {
+        this.nextCursor = cursor;
+    }
+
+    @Override
+    public void onFailure() {
+        this.failed = true;
+    }
+
+    @Override
+    public void onComplete() {
+        this.complete = true;
+        if (this.entries.contains(null)) {
+            this.failed = true;
+        }
+    }
+
+    /**
+     * @return whether the stream has completed
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    @Override
+    public Integer getNumFound() {
+        return this.numFound;
+    }
+
+    @Override
+    public List<Suggestion> getEntries() {
+        return this.entries;
+    }
+
+    @Override
+    public boolean isNumFoundExact() {
+        return this.isNumFoundExact;
+    }
+
+    @Override
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    @Override
+    public boolean isFailed() {
+        return this.failed;
+    }
+
+    /**
+     * Delivers the given result to the given stream as a single chunk,
+     * or as a failure if the result is failed.
+     *
+     * @param result the search result
+     * @param stream the receiving stream
+     */
+    public static void replay(SearchResult result, SearchStream stream) {
+        if (result.isFailed()) {
+            stream.onFailure();
+            stream.onComplete();
+            return;
+        }
+        Integer numFound = result.getNumFound();
+        if (numFound != null) {
+            if (result.isNumFoundExact()) {
+                stream.onCount(numFound);
+            } else {
+                stream.onEstimate(numFound);
+            }
+        }
+        stream.onChunk(0, result.getEntries());
+        String nextCursor = result.getNextCursor();
+        if (nextCursor != null) {
+            stream.onCursor(nextCursor);
+        }
+        stream.onComplete();
+    }
+
+}
@@ -0,0 +1,550 @@
+package org.reactome.web.widgets.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+
+/**
+ * Schedules the searches submitted to a {@link Searcher}. The
+ * scheduler has the following features:
+ * <ul>
+ * <li>at most a maximum number of searches are in progress at any
+ *     time</li>
+ * <li>queued searches are dispatched in {@link SearchPriority}
+ *     order</li>
+ * <li>identical pending search parameters share a single search</li>
+ * <li>if the queue of a priority below {@link SearchPriority#VISIBLE}
+ *     is flooded, then the oldest search in that queue is dropped, so
+ *     that only the most recent background searches are kept</li>
+ * <li>if the searcher is a {@link BatchSearcher}, then the searches
+ *     queued in the same browser event loop are dispatched together
+ *     in one batch</li>
+ * <li>if the searcher is a {@link StreamingSearcher}, then the result
+ *     chunks are delivered as they arrive</li>
+ * </ul>
+ *
+ * Visible searches are never dropped, since the scheduler is shared
+ * by every provider of the searcher, and the submitters cancel the
+ * visible searches they no longer need. A dropped search completes
+ * as failed, so that its submitter can search again. The consumer
+ * of a cancelled search is not called. A response which arrives for
+ * a cancelled search is reported to the {@link SearchInstrumentation}
+ * metrics sink as a stale response.
+ */
+public class SearchScheduler {
+
+    /**
+     * The default maximum number of concurrent searches.
+     */
+    public static final int DEF_MAX_CONCURRENT = 2;
+
+    /**
+     * The default maximum number of background searches queued per
+     * priority.
+     */
+    public static final int DEF_MAX_QUEUED = 4;
+
+    /**
+     * The application-wide schedulers, one per searcher. The searchers
+     * are expected to be long-lived.
+     */
+    private static final Map<Searcher, SearchScheduler> SHARED =
+            new IdentityHashMap<Searcher, SearchScheduler>();
+
+    /**
+     * A queued or running search shared by the subscribers which
+     * submitted the same parameters. The chunks received so far are
+     * replayed to a subscriber which joins a running search.
+     */
+    private class Call implements SearchStream {
+        private final SearchParameters parameters;
+        private SearchPriority priority;
+        private final List<Subscriber> subscribers = new ArrayList<Subscriber>();
+        private final List<Integer> chunkOffsets = new ArrayList<Integer>();
+        private final List<List<Suggestion>> chunks = new ArrayList<List<Suggestion>>();
+        private Integer numFound;
+        private boolean isNumFoundExact;
+        private String nextCursor;
+        private boolean failed;
+        /**
+         * The running batch, or null if the call is queued.
+         */
+        private Batch batch;
+        private boolean done;
+
+        private Call(SearchParameters parameters, SearchPriority priority) {
+            this.parameters = parameters;
+            this.priority = priority;
+        }
+
+        private void subscribe(Subscriber subscriber) {
+            this.subscribers.add(subscriber);
+            if (this.numFound != null) {
+                if (this.isNumFoundExact) {
+                    subscriber.stream.onCount(this.numFound);
+                } else {
+                    subscriber.stream.onEstimate(this.numFound);
+                }
+            }
+            for (int i = 0; i < this.chunks.size(); i++) {
+                subscriber.stream.onChunk(this.chunkOffsets.get(i), this.chunks.get(i));
+            }
+            if (this.nextCursor != null) {
+                subscriber.stream.onCursor(this.nextCursor);
+            }
+            if (this.failed) {
+                subscriber.stream.onFailure();
+            }
+        }
+
+        @Override
+        public void onChunk(int offset, List<Suggestion> suggestions) {
+            if (this.done) {
+                return;
+            }
+            this.chunkOffsets.add(offset);
+            this.chunks.add(suggestions);
+            // A subscriber might cancel another subscriber.
+            for (Subscriber subscriber : new ArrayList<Subscriber>(this.subscribers)) {
+                subscriber.stream.onChunk(offset, suggestions);
+            }
+        }
+
+        @Override
+        public void onCount(int numFound) {
+            if (this.done) {
+                return;
+            }
+            this.numFound = numFound;
+            this.isNumFoundExact = true;
+            for (Subscriber subscriber : new ArrayList<Subscriber>(this.subscribers)) {
+                subscriber.stream.onCount(numFound);
+            }
+        }
+
+        @Override
+        public void onEstimate(int numFound) {
+            if (this.done) {
+                return;
+            }
+            this.numFound = numFound;
+            this.isNumFoundExact = false;
+            for (Subscriber subscriber : new ArrayList<Subscriber>(this.subscribers)) {
+                subscriber.stream.onEstimate(numFound);
+            }
+        }
+
+        @Override
+        public void onCursor(String cursor) {
+            if (this.done) {
+                return;
+            }
+            this.nextCursor = cursor;
+            for (Subscriber subscriber : new ArrayList<Subscriber>(this.subscribers)) {
+                subscriber.stream.onCursor(cursor);
+            }
+        }
+
+        @Override
+        public void onFailure() {
+            if (this.done) {
+                return;
+            }
+            this.failed = true;
+            for (Subscriber subscriber : new ArrayList<Subscriber>(this.subscribers)) {
+                subscriber.stream.onFailure();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (this.done) {
+                return;
+            }
+            this.done = true;
+            calls.remove(this.parameters);
+            for (Subscriber subscriber : new ArrayList<Subscriber>(this.subscribers)) {
+                subscriber.stream.onComplete();
+            }
+        }
+
+        private void unsubscribe(Subscriber subscriber) {
+            this.subscribers.remove(subscriber);
+            if (this.subscribers.isEmpty() && !this.done) {
+                this.done = true;
+                calls.remove(this.parameters);
+                if (this.batch == null) {
+                    queues.get(this.priority.ordinal()).remove(this);
+                } else {
+                    this.batch.release();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * The calls dispatched to the searcher together. A batch holds a
+     * single call unless the searcher is a {@link BatchSearcher}.
+     * A batch counts as one concurrent search.
+     */
+    private class Batch implements Consumer<List<SearchResult>> {
+        private final List<Call> calls;
+        private SearchRequest request;
+        private long started;
+        private int live;
+        private boolean done;
+        /**
+         * Whether the batch was cancelled because every call was
+         * unsubscribed.
+         */
+        private boolean cancelled;
+
+        private Batch(List<Call> calls) {
+            this.calls = calls;
+            this.live = calls.size();
+            for (Call call : calls) {
+                call.batch = this;
+            }
+        }
+
+        private void run() {
+            running++;
+            SearchMetrics metrics = SearchInstrumentation.getMetrics();
+            for (Call call : this.calls) {
+                metrics.onSearch(call.parameters);
+            }
+            this.started = System.currentTimeMillis();
+            SearchRequest request;
+            if (searcher instanceof BatchSearcher) {
+                List<SearchParameters> parameters = new ArrayList<SearchParameters>();
+                for (Call call : this.calls) {
+                    parameters.add(call.parameters);
+                }
+                request = ((BatchSearcher) searcher).request(parameters, this);
+            } else if (searcher instanceof StreamingSearcher) {
+                request = ((StreamingSearcher) searcher).stream(
+                        this.calls.get(0).parameters, new StreamForwarder());
+            } else {
+                request = searcher.request(this.calls.get(0).parameters,
+                        result -> accept(Collections.singletonList(result)));
+            }
+            // The searcher might have responded synchronously.
+            if (!this.done) {
+                this.request = request;
+            }
+        }
+
+        @Override
+        public void accept(List<SearchResult> results) {
+            SearchMetrics metrics = SearchInstrumentation.getMetrics();
+            if (this.done) {
+                // The searcher might not honour the cancellation.
+                if (this.cancelled) {
+                    for (int i = 0; i < this.calls.size(); i++) {
+                        metrics.onStaleResponse();
+                    }
+                }
+                return;
+            }
+            finish();
+            metrics.onSearchLatency(elapsedMillis());
+            for (int i = 0; i < this.calls.size(); i++) {
+                Call call = this.calls.get(i);
+                if (call.done) {
+                    // The call was unsubscribed while the batch ran.
+                    metrics.onStaleResponse();
+                } else {
+                    // A call without a result fails, e.g. if the batch
+                    // searcher answered fewer searches than it was sent.
+                    SearchResult result = results == null || i >= results.size() ?
+                            null : results.get(i);
+                    SearchResultCollector.replay(
+                            result == null ? SearchResult.FAILED : result, call);
+                }
+            }
+            dispatch();
+        }
+
+        /**
+         * Forwards a streamed single-call batch to the call.
+         */
+        private class StreamForwarder implements SearchStream {
+
+            @Override
+            public void onChunk(int offset, List<Suggestion> suggestions) {
+                if (!done) {
+                    calls.get(0).onChunk(offset, suggestions);
+                }
+            }
+
+            @Override
+            public void onCount(int numFound) {
+                if (!done) {
+                    calls.get(0).onCount(numFound);
+                }
+            }
+
+            @Override
+            public void onEstimate(int numFound) {
+                if (!done) {
+                    calls.get(0).onEstimate(numFound);
+                }
+            }
+
+            @Override
+            public void onCursor(String cursor) {
+                if (!done) {
+                    calls.get(0).onCursor(cursor);
+                }
+            }
+
+            @Override
+            public void onFailure() {
+                if (!done) {
+                    calls.get(0).onFailure();
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                if (!done) {
+                    finish();
+                    SearchInstrumentation.getMetrics().onSearchLatency(elapsedMillis());
+                    calls.get(0).onComplete();
+                    dispatch();
+                } else if (cancelled) {
+                    SearchInstrumentation.getMetrics().onStaleResponse();
+                }
+            }
+
+        }
+
+        /**
+         * Cancels the batch when the last call is unsubscribed.
+         */
+        private void release() {
+            this.live--;
+            if (this.live == 0 && !this.done) {
+                finish();
+                this.cancelled = true;
+                if (this.request != null) {
+                    this.request.cancel();
+                }
+                dispatch();
+            }
+        }
+
+        private int elapsedMillis() {
+            return (int) (System.currentTimeMillis() - this.started);
+        }
+
+        private void finish() {
+            this.done = true;
+            running--;
+        }
+
+    }
+
+    /**
+     * A submitter's handle on a shared call.
+     */
+    private static class Subscriber implements SearchRequest {
+        private final Call call;
+        private final SearchStream stream;
+
+        private Subscriber(Call call, SearchStream stream) {
+            this.call = call;
+            this.stream = stream;
+        }
+
+        @Override
+        public void cancel() {
+            this.call.unsubscribe(this);
+        }
+
+    }
+
+    private final Searcher searcher;
+
+    private final int maxConcurrent;
+
+    private final int maxQueued;
+
+    private final Map<SearchParameters, Call> calls =
+            new HashMap<SearchParameters, Call>();
+
+    /**
+     * The queues in priority order.
+     */
+    private final List<LinkedList<Call>> queues = new ArrayList<LinkedList<Call>>();
+
+    private int running;
+
+    private boolean isDispatchScheduled;
+
+    public SearchScheduler(Searcher searcher) {
+        this(searcher, DEF_MAX_CONCURRENT, DEF_MAX_QUEUED);
+    }
+
+    /**
+     * @param searcher the scheduled searcher
+     * @param maxConcurrent the maximum number of concurrent searches
+     * @param maxQueued the maximum number of background searches
+     *      queued per priority
+     */
+    public SearchScheduler(Searcher searcher, int maxConcurrent, int maxQueued) {
+        if (maxConcurrent <= 0 || maxQueued <= 0) {
+            String msg = "The search scheduler limits must be positive: " +
+                    maxConcurrent + ", " + maxQueued;
+            throw new IllegalArgumentException(msg);
+        }
+        this.searcher = searcher;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        for (int i = 0; i < SearchPriority.values().length; i++) {
+            this.queues.add(new LinkedList<Call>());
+        }
+    }
+
+    /**
+     * Returns the application-wide scheduler for the given searcher,
+     * creating it with the default settings if necessary.
+     *
+     * @param searcher the scheduled searcher
+     * @return the shared scheduler
+     */
+    public static SearchScheduler getShared(Searcher searcher) {
+        SearchScheduler scheduler = SHARED.get(searcher);
+        if (scheduler == null) {
+            scheduler = new SearchScheduler(searcher);
+            SHARED.put(searcher, scheduler);
+        }
+        return scheduler;
+    }
+
+    /**
+     * @return the scheduled searcher
+     */
+    public Searcher getSearcher() {
+        return this.searcher;
+    }
+
+    /**
+     * Submits a search. If a search with equal parameters is pending,
+     * then the consumer shares that search, which is promoted to the
+     * given priority if necessary.
+     *
+     * @param parameters the search parameters, which must not be
+     *      modified thereafter
+     * @param priority the search priority
+     * @param consumer the search result consumer
+     * @return the search handle
+     */
+    public SearchRequest submit(SearchParameters parameters, SearchPriority priority,
+            final Consumer<SearchResult> consumer) {
+        SearchResultCollector collector = new SearchResultCollector() {
+
+            @Override
+            public void onComplete() {
+                super.onComplete();
+                consumer.accept(this);
+            }
+
+        };
+        return submit(parameters, priority, collector);
+    }
+
+    /**
+     * Submits a search whose result is delivered incrementally if the
+     * searcher is a {@link StreamingSearcher}, or as a single chunk
+     * otherwise. Pending searches are shared as in
+     * {@link #submit(SearchParameters, SearchPriority, Consumer)}.
+     *
+     * @param parameters the search parameters, which must not be
+     *      modified thereafter
+     * @param priority the search priority
+     * @param stream the search result stream
+     * @return the search handle
+     */
+    public SearchRequest submit(SearchParameters parameters, SearchPriority priority,
+            SearchStream stream) {
+        Call call = this.calls.get(parameters);
+        if (call == null) {
+            call = new Call(parameters, priority);
+            this.calls.put(parameters, call);
+            enqueue(call);
+        } else if (call.batch == null && priority.compareTo(call.priority) < 0) {
+            this.queues.get(call.priority.ordinal()).remove(call);
+            call.priority = priority;
+            enqueue(call);
+        }
+        Subscriber subscriber = new Subscriber(call, stream);
+        call.subscribe(subscriber);
+        dispatch();
+        return subscriber;
+    }
+
+    /**
+     * @return the number of searches in progress
+     */
+    public int getRunningCount() {
+        return this.running;
+    }
+
+    private void enqueue(Call call) {
+        LinkedList<Call> queue = this.queues.get(call.priority.ordinal());
+        queue.addLast(call);
+        if (call.priority != SearchPriority.VISIBLE && queue.size() > this.maxQueued) {
+            Call dropped = queue.removeFirst();
+            dropped.onFailure();
+            dropped.onComplete();
+        }
+    }
+
+    private void dispatch() {
+        if (!(this.searcher instanceof BatchSearcher)) {
+            dispatchQueued();
+        } else if (!this.isDispatchScheduled) {
+            // Collect the searches submitted in the current event
+            // loop into a batch.
+            this.isDispatchScheduled = true;
+            Scheduler.get().scheduleFinally(new ScheduledCommand() {
+
+                @Override
+                public void execute() {
+                    isDispatchScheduled = false;
+                    dispatchQueued();
+                }
+
+            });
+        }
+    }
+
+    private void dispatchQueued() {
+        int maxBatchSize = this.searcher instanceof BatchSearcher ?
+                ((BatchSearcher) this.searcher).getMaxBatchSize() : 1;
+        while (this.running < this.maxConcurrent) {
+            // Take the calls in priority order.
+            List<Call> batch = new ArrayList<Call>();
+            for (LinkedList<Call> queue : this.queues) {
+                while (batch.size() < maxBatchSize && !queue.isEmpty()) {
+                    batch.add(queue.removeFirst());
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            new Batch(batch).run();
+        }
+    }
+
+}
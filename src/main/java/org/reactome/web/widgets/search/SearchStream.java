@@ -0,0 +1,65 @@
+package org.reactome.web.widgets.search;
+
+import java.util.List;
+
+/**
+ * The receiver of an incremental search result. A
+ * {@link StreamingSearcher} pushes the suggestions in chunks as
+ * they become available, optionally followed or preceded by the
+ * exact or estimated number found and the next page cursor, and
+ * finally signals completion.
+ */
+public interface SearchStream {
+
+    /**
+     * Receives a chunk of suggestions.
+     *
+     * @param offset the offset of the first suggestion relative
+     *      to the search start
+     * @param suggestions the suggestions
+     */
+    void onChunk(int offset, List<Suggestion> suggestions);
+
+    /**
+     * Receives the total number of entries available. This method
+     * is not called if the number found is not known, in which case
+     * the default number found is the number of entries delivered.
+     *
+     * @param numFound the number found
+     */
+    void onCount(int numFound);
+
+    /**
+     * Receives an estimate of the total number of entries available,
+     * if the search parameters do not require an exact count. This
+     * implementation ignores the estimate.
+     *
+     * @param numFound the estimated number found
+     */
+    default void onEstimate(int numFound) {
+    }
+
+    /**
+     * Receives the {@link SearchResult#getNextCursor()} value. This
+     * method is not called if the searcher does not support cursors.
+     * This implementation ignores the cursor.
+     *
+     * @param cursor the next page cursor
+     */
+    default void onCursor(String cursor) {
+    }
+
+    /**
+     * Signals that the search failed, e.g. on a network error. The
+     * stream is then completed. The chunks received so far, if any,
+     * are incomplete. This implementation ignores the failure.
+     */
+    default void onFailure() {
+    }
+
+    /**
+     * Signals that every chunk has been delivered.
+     */
+    void onComplete();
+
+}
@@ -10,4 +10,18 @@ public interface Searcher {
      * is completed.
      */
     void search(SearchParameters parameters, Consumer<SearchResult> consumer);
-}
\ No newline at end of file
+
+    /**
+     * Searches as in {@link #search(SearchParameters, Consumer)} and
+     * returns a handle which can cancel the search. The default
+     * implementation returns a handle which does not abort the search.
+     * Implementors which can abort a search in progress should
+     * override this method.
+     *
+     * @return the search handle
+     */
+    default SearchRequest request(SearchParameters parameters, Consumer<SearchResult> consumer) {
+        search(parameters, consumer);
+        return SearchRequest.NONE;
+    }
+}
@@ -0,0 +1,20 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * A {@link Searcher} which delivers its result incrementally, so that
+ * the first suggestions can be displayed before the slowest part of
+ * the result is available.
+ */
+public interface StreamingSearcher extends Searcher {
+
+    /**
+     * Searches for items which match the given parameters. The
+     * implementor is responsible for calling the stream methods as
+     * described in {@link SearchStream}, ending with
+     * {@link SearchStream#onComplete()}.
+     *
+     * @return the search handle
+     */
+    SearchRequest stream(SearchParameters parameters, SearchStream stream);
+
+}
@@ -1,14 +1,20 @@
 package org.reactome.web.widgets.search;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
 import com.google.gwt.cell.client.AbstractCell;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.resources.client.ClientBundle;
 import com.google.gwt.resources.client.CssResource;
+import com.google.gwt.resources.client.ImageResource;
 import com.google.gwt.safehtml.client.SafeHtmlTemplates;
 import com.google.gwt.safehtml.shared.SafeHtml;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
 import com.google.gwt.safehtml.shared.SafeUri;
+import com.google.gwt.user.client.ui.AbstractImagePrototype;
 /**
  * The cell datum includes a required key and title. The title is
  * the primary text displayed in the suggestion cell. The title is
@@ -17,6 +23,18 @@ import com.google.gwt.safehtml.shared.SafeUri;
  * one or more secondary text items. These secondary items are
  * displayed under the title in a smaller font size.
  *
+ * The rendered HTML is memoized by suggestion key in a bounded
+ * least-recently-used cache, so that a redraw of unchanged rows
+ * reuses the HTML. The cache should be cleared by calling
+ * {@link #clearRenderCache()} when the search term changes.
+ *
+ * Suggestion images are loaded lazily by the browser, i.e. only when
+ * the row is scrolled into view. Images which are shared by many
+ * suggestions, e.g. a species or type icon, can instead be resolved
+ * to an {@link ImageResource} by an image resolver. A bundled image
+ * resource is rendered from the bundle sprite rather than requested
+ * separately for each row.
+ *
  * @author Fred Loney <loneyf@ohsu.edu>
  */
 public class SuggestionCell<C extends Suggestion> extends AbstractCell<C> {
@@ -28,11 +46,17 @@ public class SuggestionCell<C extends Suggestion> extends AbstractCell<C> {
      */
     private static final int ELISION_LEN = 35;
 
+    /**
+     * The default maximum number of memoized rows.
+     */
+    public static final int DEF_RENDER_CACHE_SIZE = 500;
+
     /**
      * The HTML templates used to render the cell.
      */
     interface Templates extends SafeHtmlTemplates {
-        static final String IMAGE = "<img src=\"{0}\"></img>";
+        static final String IMAGE =
+                "<img src=\"{0}\" loading=\"lazy\" decoding=\"async\"></img>";
         
         static final String SANS_TOOLTIP = "<div class=\"{0}\">{1}</div>";
         
@@ -83,6 +107,68 @@ public class SuggestionCell<C extends Suggestion> extends AbstractCell<C> {
      */
     private static Templates templates = GWT.create(Templates.class);
 
+    private final Map<Object, SafeHtml> renderCache;
+
+    private Function<SafeUri, ImageResource> imageResolver;
+
+    private int hitCount;
+
+    private int missCount;
+
+    public SuggestionCell() {
+        this(DEF_RENDER_CACHE_SIZE);
+    }
+
+    /**
+     * @param renderCacheSize the maximum number of memoized rows
+     */
+    public SuggestionCell(final int renderCacheSize) {
+        // An access-ordered map evicts the least recently used entry.
+        this.renderCache = new LinkedHashMap<Object, SafeHtml>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, SafeHtml> eldest) {
+                return size() > renderCacheSize;
+            }
+
+        };
+    }
+
+    /**
+     * Sets the resolver of suggestion image URLs to shared image
+     * resources. The resolver returns null for an image URL which
+     * is not shared, in which case the image is loaded from the URL.
+     *
+     * @param imageResolver the image resolver, or null for none
+     */
+    public void setImageResolver(Function<SafeUri, ImageResource> imageResolver) {
+        this.imageResolver = imageResolver;
+        clearRenderCache();
+    }
+
+    /**
+     * Discards the memoized rows.
+     */
+    public void clearRenderCache() {
+        renderCache.clear();
+    }
+
+    /**
+     * @return the number of rows rendered from the cache
+     */
+    public int getRenderCacheHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of rows which were not in the cache
+     */
+    public int getRenderCacheMissCount() {
+        return missCount;
+    }
+
     @Override
     public void render(Context context, C value, SafeHtmlBuilder sb) {
         // Always do a null check on the value. Cell widgets can pass null to
@@ -91,14 +177,37 @@ public class SuggestionCell<C extends Suggestion> extends AbstractCell<C> {
         if (value == null) {
             return;
         }
+        Object key = value.getKey();
+        SafeHtml html = key == null ? null : renderCache.get(key);
+        boolean isHit = html != null;
+        if (isHit) {
+            hitCount++;
+        } else {
+            missCount++;
+            html = renderHtml(value);
+            if (key != null) {
+                renderCache.put(key, html);
+            }
+        }
+        SearchInstrumentation.getMetrics().onCacheLookup(SearchMetrics.Cache.RENDER, isHit);
+        sb.append(html);
+    }
+
+    private SafeHtml renderHtml(C value) {
         SafeUri image = value.getImage();
         SafeHtml imageHtml = null;
         if (image != null) {
-            imageHtml = templates.image(image);
+            ImageResource resource =
+                    imageResolver == null ? null : imageResolver.apply(image);
+            if (resource == null) {
+                imageHtml = templates.image(image);
+            } else {
+                imageHtml = AbstractImagePrototype.create(resource).getSafeHtml();
+            }
         }
         String style = RESOURCES.getCSS().main();
         SafeHtml textHtml= formatTextFields(value);
-        sb.append(templates.cell(style, imageHtml, textHtml));
+        return templates.cell(style, imageHtml, textHtml);
     }
 
     private SafeHtml formatTextFields(C value) {
@@ -6,8 +6,15 @@ import org.reactome.web.widgets.paging.Pager;
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.dom.client.DomEvent;
 import com.google.gwt.event.dom.client.DoubleClickEvent;
 import com.google.gwt.event.dom.client.DoubleClickHandler;
+import com.google.gwt.event.dom.client.KeyCodes;
+import com.google.gwt.event.dom.client.KeyDownEvent;
+import com.google.gwt.event.dom.client.KeyDownHandler;
 import com.google.gwt.resources.client.ClientBundle;
 import com.google.gwt.resources.client.CssResource;
 import com.google.gwt.uibinder.client.UiBinder;
@@ -18,7 +25,9 @@ import com.google.gwt.user.cellview.client.HasKeyboardSelectionPolicy;
 import com.google.gwt.user.cellview.client.SimplePager;
 import com.google.gwt.user.client.Event;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
+import com.google.gwt.user.client.ui.HTMLPanel;
 import com.google.gwt.user.client.ui.IsWidget;
+import com.google.gwt.user.client.ui.SimpleLayoutPanel;
 import com.google.gwt.user.client.ui.TextBox;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.view.client.ProvidesKey;
@@ -41,11 +50,35 @@ public class SuggestionComboBox<C extends Suggestion> implements IsWidget,
     }
     static final Binder uiBinder = GWT.create(Binder.class);
 
+    /**
+     * The suggestions list display modes.
+     */
+    public enum DisplayMode {
+
+        /**
+         * A page at a time with a pager.
+         */
+        PAGED,
+
+        /**
+         * A virtual scrolling list without a pager.
+         *
+         * @see SuggestionScroller
+         */
+        SCROLLING
+
+    }
+
     /**
      * The search key accessor for fetching the item.
      */
     private static final ProvidesKey<Suggestion> KEY_PROVIDER =
             item -> item == null ? null : item.getKey();
+
+    /**
+     * The attribute which holds the CellList row index.
+     */
+    private static final String ROW_INDEX_ATTRIBUTE = "__idx";
     
     private Consumer<C> consumer;
 
@@ -60,8 +93,19 @@ public class SuggestionComboBox<C extends Suggestion> implements IsWidget,
     /**
      * The suggestions list.
      */
-    @UiField(provided = true)
     CellList<Suggestion> suggestions;
+
+    /**
+     * The suggestions list container.
+     */
+    @UiField
+    SimpleLayoutPanel listPanel;
+
+    /**
+     * The suggestions pager container.
+     */
+    @UiField
+    HTMLPanel pagerPanel;
  
     /**
      * The suggestions pager.
@@ -71,6 +115,15 @@ public class SuggestionComboBox<C extends Suggestion> implements IsWidget,
 
     private DockLayoutPanel widget;
 
+    private SearchDataProvider dataProvider;
+
+    private SuggestionCell<Suggestion> suggestionCell;
+
+    /**
+     * The virtual scroller, or null in paged mode.
+     */
+    private SuggestionScroller scroller;
+
     private Consumer<C> dblClickConsumer;
 
     /**
@@ -81,14 +134,32 @@ public class SuggestionComboBox<C extends Suggestion> implements IsWidget,
      * @param pageSize the maximum number of suggestion
      */
     public SuggestionComboBox(Searcher searcher, Consumer<C> consumer, int pageSize) {
+        this(searcher, consumer, pageSize, DisplayMode.PAGED);
+    }
+
+    /**
+     * Creates the combo box with the given display mode.
+     * 
+     * @param searcher the data supplier  
+     * @param consumer the suggestion selection consumer
+     * @param pageSize the maximum number of suggestion in paged
+     *      mode, or the initial search size in scrolling mode
+     * @param mode the suggestions list display mode
+     */
+    public SuggestionComboBox(Searcher searcher, Consumer<C> consumer, int pageSize,
+            DisplayMode mode) {
         this.consumer = consumer;
         // The suggestions list.
-        SuggestionCell<Suggestion> suggestionCell = new SuggestionCell<Suggestion>();
+        suggestionCell = new SuggestionCell<Suggestion>();
         suggestions = new CellList<Suggestion>(suggestionCell, KEY_PROVIDER);
-        suggestions.sinkEvents(Event.FOCUSEVENTS | Event.ONCLICK | Event.ONDBLCLICK);
+        suggestions.sinkEvents(Event.FOCUSEVENTS | Event.ONCLICK | Event.ONDBLCLICK |
+                Event.ONKEYDOWN);
         suggestions.addStyleName(RESOURCES.getCSS().list());
-        suggestions.setKeyboardPagingPolicy(
-                HasKeyboardPagingPolicy.KeyboardPagingPolicy.INCREASE_RANGE);
+        // The scroller rather than the keyboard sets the scrolling
+        // list range.
+        suggestions.setKeyboardPagingPolicy(mode == DisplayMode.PAGED ?
+                HasKeyboardPagingPolicy.KeyboardPagingPolicy.INCREASE_RANGE :
+                HasKeyboardPagingPolicy.KeyboardPagingPolicy.CURRENT_PAGE);
         selectionModel = new SingleSelectionModel<Suggestion>(KEY_PROVIDER);
         selectionModel.addSelectionChangeHandler(this);
         suggestions.setSelectionModel(selectionModel);
@@ -96,13 +167,17 @@ public class SuggestionComboBox<C extends Suggestion> implements IsWidget,
                 HasKeyboardSelectionPolicy.KeyboardSelectionPolicy.DISABLED);
 
         // The auto-complete search input text box.
-        SearchDataProvider dataProvider = new SearchDataProvider(searcher, pageSize);
+        dataProvider = new SearchDataProvider(searcher, pageSize);
         dataProvider.addDataDisplay(suggestions);
         Consumer<String> termConsumer = new Consumer<String>() {
 
             @Override
             public void accept(String term) {
+                suggestionCell.clearRenderCache();
                 dataProvider.setTerm(term);
+                if (scroller != null) {
+                    scroller.reset();
+                }
                 // If an actionable term is cleared, then notify the combo box
                 // consumer.
                 if (term == null) {
@@ -112,8 +187,12 @@ public class SuggestionComboBox<C extends Suggestion> implements IsWidget,
             }
  
         };
-        input = new SearchBox(termConsumer);
-        input.addStyleName(RESOURCES.getCSS().input());
+        SearchBox searchBox = new SearchBox(termConsumer);
+        searchBox.addStyleName(RESOURCES.getCSS().input());
+        // Feed the search latency back to the search box debounce policy.
+        dataProvider.setLatencyListener(
+                latency -> searchBox.getPolicy().onSearchLatency(latency));
+        input = searchBox;
         
         // The suggestions pager.
         // Oddly, the pager default is to show a fast forward
@@ -124,48 +203,114 @@ public class SuggestionComboBox<C extends Suggestion> implements IsWidget,
         // buttons.
         pager = new Pager(pageSize);
         pager.addStyleName(RESOURCES.getCSS().pager());
-        pager.setDisplay(suggestions);
         widget = uiBinder.createAndBindUi(this);
+        if (mode == DisplayMode.PAGED) {
+            pager.setDisplay(suggestions);
+            listPanel.setWidget(suggestions);
+        } else {
+            scroller = new SuggestionScroller(suggestions);
+            listPanel.setWidget(scroller);
+            widget.setWidgetHidden(pagerPanel, true);
+        }
         
-        // Double-click over an item selects that item and calls
-        // the optional double-cllick consumer, if necessary.
-        // Double-click outside of a visible item deselects the
-        // current selected item, if any.
-        DoubleClickHandler handler = new DoubleClickHandler() {
-            
-            @SuppressWarnings("unchecked")
-            @Override
-            public void onDoubleClick(DoubleClickEvent event) {
-                int itemCnt = suggestions.getVisibleItemCount();
-                if (itemCnt > 0) {
-                    Element container = suggestions.getRowContainer();
-                    int y = event.getRelativeY(container);
-                    Element firstElt = suggestions.getRowElement(0);
-                    int height = firstElt.getOffsetHeight();
-                    int rowNdx = y / height;
-                    if (rowNdx < itemCnt) {
-                        Suggestion selItem = suggestions.getVisibleItem(rowNdx);
-                        selectionModel.setSelected(selItem, true);
-                        if (dblClickConsumer != null) {
-                            dblClickConsumer.accept((C) selItem);
-                        }
-                        return;
-                    }
-                }
+        // A single delegated handler resolves the row of a click,
+        // double-click or Enter key from the event target.
+        RowEventHandler handler = new RowEventHandler();
+        suggestions.addDomHandler(handler, ClickEvent.getType());
+        suggestions.addDomHandler(handler, DoubleClickEvent.getType());
+        suggestions.addDomHandler(handler, KeyDownEvent.getType());
+    }
+
+    /**
+     * Handles the suggestion list row events as follows:
+     * <ul>
+     * <li>Click over an item selects that item.</li>
+     * <li>Double-click over an item selects that item and calls
+     *     the optional double-click consumer, if necessary.</li>
+     * <li>Double-click outside of a visible item deselects the
+     *     current selected item, if any.</li>
+     * <li>Enter activates the selected item like a double-click.</li>
+     * </ul>
+     *
+     * The row is found from the event target element rather than
+     * from the event position, so no layout properties are read and
+     * rows can have different heights.
+     */
+    private class RowEventHandler implements ClickHandler, DoubleClickHandler,
+            KeyDownHandler {
+
+        @Override
+        public void onClick(ClickEvent event) {
+            Suggestion item = getItem(event);
+            if (item != null) {
+                selectionModel.setSelected(item, true);
+            }
+        }
+
+        @Override
+        public void onDoubleClick(DoubleClickEvent event) {
+            Suggestion item = getItem(event);
+            if (item != null) {
+                selectionModel.setSelected(item, true);
+                activate(item);
+            } else {
                 Suggestion current = selectionModel.getSelectedObject();
                 if (current != null) {
                     selectionModel.setSelected(current, false);
                 }
             }
- 
-        };
-        suggestions.addDomHandler(handler, DoubleClickEvent.getType());
+        }
+
+        @Override
+        public void onKeyDown(KeyDownEvent event) {
+            if (event.getNativeKeyCode() == KeyCodes.KEY_ENTER) {
+                Suggestion current = selectionModel.getSelectedObject();
+                if (current != null) {
+                    activate(current);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void activate(Suggestion item) {
+            if (dblClickConsumer != null) {
+                dblClickConsumer.accept((C) item);
+            }
+        }
+
+        /**
+         * @return the visible item of the row which contains the event
+         *      target, or null if the target is not in a visible row
+         */
+        private Suggestion getItem(DomEvent<?> event) {
+            EventTarget eventTarget = event.getNativeEvent().getEventTarget();
+            if (!Element.is(eventTarget)) {
+                return null;
+            }
+            // The CellList marks each row element with its absolute index.
+            Element container = suggestions.getRowContainer();
+            Element elt = Element.as(eventTarget);
+            while (elt != null && elt != container) {
+                String idx = elt.getAttribute(ROW_INDEX_ATTRIBUTE);
+                if (!idx.isEmpty() && elt.getParentElement() == container) {
+                    int rowNdx = Integer.parseInt(idx) - suggestions.getPageStart();
+                    if (rowNdx >= 0 && rowNdx < suggestions.getVisibleItemCount()) {
+                        return suggestions.getVisibleItem(rowNdx);
+                    }
+                    return null;
+                }
+                elt = elt.getParentElement();
+            }
+            return null;
+        }
+
     }
-    
+
     /**
      * Adds a consumer for a double-click on a suggestion. The consumer
      * {@link Consumer#accept(Object)} method is invoked if and only if
-     * a double-click action occurs on a visible suggestion. Other
+     * a double-click action occurs on a visible suggestion or the Enter
+     * key is pressed in the list while a suggestion is selected. Other
      * double-clicks in the suggestion list area deselect an existing
      * selection, if an item is selected.
      * 
@@ -175,6 +320,48 @@ public class SuggestionComboBox<C extends Suggestion> implements IsWidget,
         dblClickConsumer = consumer;
     }
     
+    /**
+     * Returns the data provider, e.g. to opt into a shared
+     * {@link SearchResultCache}.
+     *
+     * @return the suggestions data provider
+     */
+    public SearchDataProvider getDataProvider() {
+        return dataProvider;
+    }
+
+    /**
+     * Sets how the suggestions row count is obtained. Unless the
+     * mode is {@link SearchDataProvider.CountMode#EXACT}, the last
+     * page button fetches the exact row count.
+     *
+     * @param countMode the count mode
+     */
+    public void setCountMode(SearchDataProvider.CountMode countMode) {
+        dataProvider.setCountMode(countMode);
+        ((Pager) pager).setRowCountRequest(countMode == SearchDataProvider.CountMode.EXACT ?
+                null : dataProvider::requestExactCount);
+    }
+
+    /**
+     * Sets the search box debounce policy, e.g. an
+     * {@link AdaptiveDebouncePolicy}.
+     *
+     * @param policy the debounce policy
+     */
+    public void setDebouncePolicy(DebouncePolicy policy) {
+        ((SearchBox) input).setPolicy(policy);
+    }
+
+    /**
+     * Returns the suggestion cell, e.g. to set a shared image resolver.
+     *
+     * @return the suggestions list cell
+     */
+    public SuggestionCell<Suggestion> getSuggestionCell() {
+        return suggestionCell;
+    }
+
     public void setFocus(boolean focused) {
         input.setFocus(focused);
     }
@@ -233,5 +420,12 @@ public class SuggestionComboBox<C extends Suggestion> implements IsWidget,
 
         String pager();
 
+        String window();
+
+        /**
+         * @return the virtual scrolling list row height in pixels
+         */
+        int rowHeight();
+
     }
 }
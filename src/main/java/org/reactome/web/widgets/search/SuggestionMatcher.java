@@ -0,0 +1,47 @@
+package org.reactome.web.widgets.search;
+
+/**
+ * Decides whether a suggestion matches a search term. A matcher
+ * is used by {@link SearchDataProvider} to refine a complete
+ * result set locally when the user extends the search term.
+ * The matcher should agree with the backend search, i.e. it
+ * should accept a suggestion if and only if the backend would
+ * return that suggestion for the term.
+ */
+public interface SuggestionMatcher {
+
+    /**
+     * The default matcher accepts a suggestion if every word in
+     * the term occurs, ignoring case, in the title or in one of
+     * the secondary text items.
+     */
+    static final SuggestionMatcher DEFAULT = new SuggestionMatcher() {
+
+        @Override
+        public boolean matches(String term, Suggestion suggestion) {
+            String normalized = SearchResultCache.normalize(term);
+            if (normalized.isEmpty()) {
+                return true;
+            }
+            StringBuilder text = new StringBuilder(suggestion.getTitle().toLowerCase());
+            for (String secondary : suggestion.getSecondary()) {
+                text.append('\n').append(secondary.toLowerCase());
+            }
+            for (String word : normalized.split(" ")) {
+                if (text.indexOf(word) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    };
+
+    /**
+     * @param term the search term
+     * @param suggestion the candidate suggestion
+     * @return whether the suggestion matches the term
+     */
+    boolean matches(String term, Suggestion suggestion);
+
+}
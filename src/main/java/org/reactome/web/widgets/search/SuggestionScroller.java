@@ -0,0 +1,160 @@
+package org.reactome.web.widgets.search;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.dom.client.Style;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.user.cellview.client.CellList;
+import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.ProvidesResize;
+import com.google.gwt.user.client.ui.RequiresResize;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.view.client.Range;
+import com.google.gwt.view.client.RowCountChangeEvent;
+
+/**
+ * A virtual scrolling view of a suggestions list. The list is
+ * placed in a scrolling canvas which is as tall as every row would
+ * be. Only the visible rows plus a buffer above and below are in
+ * the list. As the user scrolls, the list is moved to the visible
+ * area of the canvas and its visible range is changed accordingly,
+ * which in turn fetches the range from the list data provider.
+ *
+ * The rows must have a fixed height. The {@link #STYLE} style sets
+ * the list row height to the {@link SuggestionComboBox.Css#rowHeight()}
+ * value.
+ *
+ * The window is measured after the scroller is laid out, and again
+ * whenever an enclosing layout panel resizes the scroller.
+ */
+public class SuggestionScroller extends Composite implements ScrollHandler,
+        RowCountChangeEvent.Handler, RequiresResize, ProvidesResize {
+
+    /**
+     * The default number of rows kept above and below the visible rows.
+     */
+    public static final int DEF_BUFFER = 10;
+
+    /**
+     * The list style which fixes the row height.
+     */
+    public static final String STYLE = SuggestionComboBox.RESOURCES.getCSS().window();
+
+    private final ScrollPanel scrollPanel;
+
+    private final FlowPanel canvas;
+
+    private final CellList<?> list;
+
+    private final int rowHeight;
+
+    private final int buffer;
+
+    private boolean isUpdateScheduled;
+
+    /**
+     * @param list the suggestions list
+     */
+    public SuggestionScroller(CellList<?> list) {
+        this(list, SuggestionComboBox.RESOURCES.getCSS().rowHeight(), DEF_BUFFER);
+    }
+
+    /**
+     * @param list the suggestions list
+     * @param rowHeight the fixed row height in pixels
+     * @param buffer the number of rows kept above and below the
+     *      visible rows
+     */
+    public SuggestionScroller(CellList<?> list, int rowHeight, int buffer) {
+        this.list = list;
+        this.rowHeight = rowHeight;
+        this.buffer = buffer;
+        list.addStyleName(STYLE);
+        Style listStyle = list.getElement().getStyle();
+        listStyle.setPosition(Style.Position.ABSOLUTE);
+        listStyle.setLeft(0, Style.Unit.PX);
+        listStyle.setRight(0, Style.Unit.PX);
+        listStyle.setTop(0, Style.Unit.PX);
+        canvas = new FlowPanel();
+        canvas.getElement().getStyle().setPosition(Style.Position.RELATIVE);
+        canvas.add(list);
+        scrollPanel = new ScrollPanel(canvas);
+        scrollPanel.addScrollHandler(this);
+        list.addRowCountChangeHandler(this);
+        initWidget(scrollPanel);
+    }
+
+    /**
+     * Scrolls to the first row, e.g. when the search term changes.
+     */
+    public void reset() {
+        scrollPanel.scrollToTop();
+        update();
+    }
+
+    @Override
+    public void onScroll(ScrollEvent event) {
+        // Update at most once per animation frame.
+        if (!isUpdateScheduled) {
+            isUpdateScheduled = true;
+            AnimationScheduler.get().requestAnimationFrame(new AnimationCallback() {
+
+                @Override
+                public void execute(double timestamp) {
+                    isUpdateScheduled = false;
+                    update();
+                }
+
+            });
+        }
+    }
+
+    @Override
+    public void onRowCountChange(RowCountChangeEvent event) {
+        int height = event.getNewRowCount() * rowHeight;
+        canvas.getElement().getStyle().setHeight(height, Style.Unit.PX);
+    }
+
+    @Override
+    public void onResize() {
+        scrollPanel.onResize();
+        update();
+    }
+
+    @Override
+    protected void onLoad() {
+        super.onLoad();
+        // The scroll panel has no height until the browser has laid
+        // out the enclosing panels.
+        Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+            @Override
+            public void execute() {
+                if (isAttached()) {
+                    update();
+                }
+            }
+
+        });
+    }
+
+    /**
+     * Moves the list window to the visible part of the canvas.
+     */
+    private void update() {
+        int top = scrollPanel.getVerticalScrollPosition();
+        int visible = scrollPanel.getOffsetHeight() / rowHeight + 1;
+        int start = Math.max(0, top / rowHeight - buffer);
+        int length = visible + 2 * buffer;
+        Range range = list.getVisibleRange();
+        if (range.getStart() != start || range.getLength() != length) {
+            list.getElement().getStyle().setTop(start * rowHeight, Style.Unit.PX);
+            list.setVisibleRange(start, length);
+        }
+    }
+
+}
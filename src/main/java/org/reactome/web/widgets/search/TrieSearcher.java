@@ -0,0 +1,489 @@
+package org.reactome.web.widgets.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Searcher} which answers searches locally from a preloaded
+ * vocabulary of suggestions, e.g. species, compartments or gene
+ * symbols. A suggestion matches a term if the normalized term is a
+ * prefix of the normalized title starting at a word boundary, e.g.
+ * "memb" and "membrane tr" both match "Mitochondrial membrane
+ * transport". The {@link #MATCHER} agrees with this rule, and can
+ * serve as the {@link SearchDataProvider} refinement matcher.
+ *
+ * The vocabulary is held in a compressed radix trie of the title
+ * suffixes which start a word. The trie nodes are flattened into int
+ * arrays, and the edge labels are held in a single string. Since the
+ * suffixes are sorted, each node matches a contiguous range of the
+ * sorted suffixes. The titles which start with the term are returned
+ * first in alphabetical order. The other matches follow in the
+ * alphabetical order of their matching word suffix, e.g. "Outer
+ * membrane" precedes "Mitochondrial membrane transport" for the
+ * "memb" term.
+ *
+ * The titles which start with the term are sliced from a sorted
+ * index, so that a page of a broad prefix does not scan the node
+ * range. The other matches are scanned only up to the requested
+ * page, unless the search requires the exact count. The exact count
+ * of a node is computed once and then reused. Otherwise, the count
+ * is an estimate.
+ *
+ * Searches are answered synchronously. If a fallback searcher is set,
+ * then it answers the terms which do not match any suggestion and
+ * the searches made before the vocabulary is loaded.
+ */
+public class TrieSearcher implements Searcher {
+
+    /**
+     * The page size if the search parameters do not have a size.
+     */
+    public static final int DEF_PAGE_SIZE = 10;
+
+    /**
+     * Accepts a suggestion if the term is a prefix of a title word
+     * sequence, per the trie searcher matching rule.
+     */
+    public static final SuggestionMatcher MATCHER = new SuggestionMatcher() {
+
+        @Override
+        public boolean matches(String term, Suggestion suggestion) {
+            String normalized = SearchResultCache.normalize(term);
+            String title = SearchResultCache.normalize(suggestion.getTitle());
+            return title.startsWith(normalized) || title.contains(" " + normalized);
+        }
+
+    };
+
+    /**
+     * The trie built from the vocabulary.
+     */
+    private static class Trie {
+
+        private final Suggestion[] suggestions;
+
+        /**
+         * The suggestion index of each sorted suffix. The index of a
+         * suffix which is not the whole title is complemented.
+         */
+        private final int[] suffixes;
+
+        /**
+         * The concatenated edge labels.
+         */
+        private final String labels;
+
+        private final int[] labelStart;
+
+        private final int[] labelLength;
+
+        private final int[] childStart;
+
+        private final int[] childCount;
+
+        /**
+         * The node range of the sorted suffixes.
+         */
+        private final int[] rangeStart;
+
+        private final int[] rangeEnd;
+
+        /**
+         * The number of whole-title suffixes before each sorted suffix
+         * position and before the end.
+         */
+        private final int[] titleBefore;
+
+        /**
+         * The suggestion index of each whole-title suffix in sorted
+         * order.
+         */
+        private final int[] titleOrder;
+
+        /**
+         * The {@link #titleOrder} position of each suggestion.
+         */
+        private final int[] titlePos;
+
+        /**
+         * The number of suggestions which match each node by a word
+         * other than the first title word, or -1 if the node is not
+         * counted yet.
+         */
+        private final int[] wordCounts;
+
+        /**
+         * The search stamp of each suggestion, used to skip the
+         * suggestions already counted by the current search.
+         */
+        private final int[] stamps;
+
+        private int stamp;
+
+        private Trie(Suggestion[] suggestions, int[] suffixes, String labels,
+                List<int[]> nodes) {
+            this.suggestions = suggestions;
+            this.suffixes = suffixes;
+            this.labels = labels;
+            int size = nodes.size();
+            this.labelStart = new int[size];
+            this.labelLength = new int[size];
+            this.childStart = new int[size];
+            this.childCount = new int[size];
+            this.rangeStart = new int[size];
+            this.rangeEnd = new int[size];
+            for (int i = 0; i < size; i++) {
+                int[] node = nodes.get(i);
+                this.labelStart[i] = node[0];
+                this.labelLength[i] = node[1];
+                this.childStart[i] = node[2];
+                this.childCount[i] = node[3];
+                this.rangeStart[i] = node[4];
+                this.rangeEnd[i] = node[5];
+            }
+            this.titleBefore = new int[suffixes.length + 1];
+            this.titleOrder = new int[suggestions.length];
+            this.titlePos = new int[suggestions.length];
+            for (int i = 0; i < suffixes.length; i++) {
+                int title = this.titleBefore[i];
+                if (suffixes[i] >= 0) {
+                    this.titleOrder[title] = suffixes[i];
+                    this.titlePos[suffixes[i]] = title;
+                    title++;
+                }
+                this.titleBefore[i + 1] = title;
+            }
+            this.wordCounts = new int[size];
+            Arrays.fill(this.wordCounts, -1);
+            this.stamps = new int[suggestions.length];
+        }
+
+        /**
+         * @param prefix the normalized term
+         * @return the matching node, or -1 if there is none
+         */
+        private int find(String prefix) {
+            int node = 0;
+            int pos = 0;
+            while (pos < prefix.length()) {
+                int child = findChild(node, prefix.charAt(pos));
+                if (child < 0) {
+                    return -1;
+                }
+                int start = this.labelStart[child];
+                int length = Math.min(this.labelLength[child], prefix.length() - pos);
+                if (!this.labels.regionMatches(start, prefix, pos, length)) {
+                    return -1;
+                }
+                pos += length;
+                node = child;
+            }
+            return node;
+        }
+
+        private int findChild(int node, char c) {
+            // The children are sorted by their first label character.
+            int low = this.childStart[node];
+            int high = low + this.childCount[node] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = this.labels.charAt(this.labelStart[mid]);
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private SearchResult search(int node, int start, int size, boolean exactCount) {
+            List<Suggestion> entries = new ArrayList<Suggestion>();
+            int from = this.rangeStart[node];
+            int to = this.rangeEnd[node];
+            int end = (int) Math.min(Integer.MAX_VALUE, (long) start + size);
+            // The titles which start with the term come first.
+            int titleFrom = this.titleBefore[from];
+            int titleTo = this.titleBefore[to];
+            int titleCount = titleTo - titleFrom;
+            int titleEnd = titleFrom + Math.min(end, titleCount);
+            for (int i = titleFrom + Math.min(start, titleCount); i < titleEnd; i++) {
+                entries.add(this.suggestions[this.titleOrder[i]]);
+            }
+            // A title might have several matching words. The words
+            // are scanned up to the end of the page.
+            int wordStart = start - titleCount;
+            int wordEnd = end - titleCount;
+            int wordCount = 0;
+            this.stamp++;
+            int i = from;
+            for (; i < to && wordCount < wordEnd; i++) {
+                int suggestion = ~this.suffixes[i];
+                if (isWordMatch(suggestion, titleFrom, titleTo)) {
+                    this.stamps[suggestion] = this.stamp;
+                    if (wordCount >= wordStart) {
+                        entries.add(this.suggestions[suggestion]);
+                    }
+                    wordCount++;
+                }
+            }
+            if (this.wordCounts[node] < 0 && (i == to || exactCount)) {
+                for (; i < to; i++) {
+                    int suggestion = ~this.suffixes[i];
+                    if (isWordMatch(suggestion, titleFrom, titleTo)) {
+                        this.stamps[suggestion] = this.stamp;
+                        wordCount++;
+                    }
+                }
+                this.wordCounts[node] = wordCount;
+            }
+            if (this.wordCounts[node] < 0) {
+                // Every other suffix in range might be a distinct match.
+                return new TrieResult(to - from, entries, false);
+            }
+            return new TrieResult(titleCount + this.wordCounts[node], entries, true);
+        }
+
+        /**
+         * @param suggestion the suggestion index of a sorted suffix,
+         *      which is negative for a whole-title suffix
+         * @param titleFrom the first title position of the node
+         * @param titleTo the title position after the node
+         * @return whether the suggestion matches only by a word other
+         *      than the first title word, and was not yet counted by
+         *      the current search
+         */
+        private boolean isWordMatch(int suggestion, int titleFrom, int titleTo) {
+            if (suggestion < 0 || this.stamps[suggestion] == this.stamp) {
+                return false;
+            }
+            int title = this.titlePos[suggestion];
+            return title < titleFrom || title >= titleTo;
+        }
+
+    }
+
+    /**
+     * Builds the flattened trie from the sorted suffixes.
+     */
+    private static class TrieBuilder {
+        private final String[] keys;
+        private final StringBuilder labels = new StringBuilder();
+        /**
+         * The label start, label length, child start, child count,
+         * range start and range end of each node.
+         */
+        private final List<int[]> nodes = new ArrayList<int[]>();
+
+        private TrieBuilder(String[] keys) {
+            this.keys = keys;
+        }
+
+        private void build() {
+            this.nodes.add(new int[] {0, 0, 0, 0, 0, this.keys.length});
+            buildChildren(0, 0);
+        }
+
+        /**
+         * Adds the children of the given node, whose keys share the
+         * given prefix length.
+         */
+        private void buildChildren(int node, int depth) {
+            int[] parent = this.nodes.get(node);
+            int from = parent[4];
+            int to = parent[5];
+            // The keys which end at this node sort first.
+            while (from < to && this.keys[from].length() == depth) {
+                from++;
+            }
+            // Add the children contiguously before descending.
+            List<Integer> children = new ArrayList<Integer>();
+            parent[2] = this.nodes.size();
+            while (from < to) {
+                char c = this.keys[from].charAt(depth);
+                int groupEnd = from + 1;
+                while (groupEnd < to && this.keys[groupEnd].charAt(depth) == c) {
+                    groupEnd++;
+                }
+                // The common prefix of a sorted range is the common
+                // prefix of its first and last keys.
+                String first = this.keys[from];
+                String last = this.keys[groupEnd - 1];
+                int end = depth + 1;
+                int max = Math.min(first.length(), last.length());
+                while (end < max && first.charAt(end) == last.charAt(end)) {
+                    end++;
+                }
+                int labelStart = this.labels.length();
+                this.labels.append(first, depth, end);
+                children.add(this.nodes.size());
+                this.nodes.add(new int[] {labelStart, end - depth, 0, 0, from, groupEnd});
+                from = groupEnd;
+            }
+            parent[3] = children.size();
+            for (int child : children) {
+                int[] childNode = this.nodes.get(child);
+                buildChildren(child, depth + childNode[1]);
+            }
+        }
+
+    }
+
+    /**
+     * A word-initial title suffix and its suggestion index, which is
+     * complemented if the suffix is not the whole title.
+     */
+    private static class Suffix implements Comparable<Suffix> {
+        private final String key;
+        private final int owner;
+
+        private Suffix(String key, int owner) {
+            this.key = key;
+            this.owner = owner;
+        }
+
+        @Override
+        public int compareTo(Suffix other) {
+            return this.key.compareTo(other.key);
+        }
+
+    }
+
+    private static class TrieResult implements SearchResult {
+        private final int numFound;
+        private final List<Suggestion> entries;
+        private final boolean isNumFoundExact;
+
+        private TrieResult(int numFound, List<Suggestion> entries, boolean isNumFoundExact) {
+            this.numFound = numFound;
+            this.entries = entries;
+            this.isNumFoundExact = isNumFoundExact;
+        }
+
+        @Override
+        public Integer getNumFound() {
+            return this.numFound;
+        }
+
+        @Override
+        public boolean isNumFoundExact() {
+            return this.isNumFoundExact;
+        }
+
+        @Override
+        public List<Suggestion> getEntries() {
+            return this.entries;
+        }
+
+    }
+
+    private Trie trie;
+
+    private Searcher fallback;
+
+    /**
+     * Creates a searcher whose vocabulary is loaded later by
+     * {@link #setVocabulary(List)}.
+     *
+     * @param fallback the fallback searcher, or null for none
+     */
+    public TrieSearcher(Searcher fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * @param vocabulary the suggestions to search
+     * @param fallback the fallback searcher, or null for none
+     */
+    public TrieSearcher(List<? extends Suggestion> vocabulary, Searcher fallback) {
+        this(fallback);
+        setVocabulary(vocabulary);
+    }
+
+    /**
+     * Builds the trie. The build sorts every word-initial title suffix,
+     * and should be done once per vocabulary.
+     *
+     * @param vocabulary the suggestions to search
+     */
+    public void setVocabulary(List<? extends Suggestion> vocabulary) {
+        Suggestion[] suggestions = vocabulary.toArray(new Suggestion[vocabulary.size()]);
+        List<Suffix> suffixList = new ArrayList<Suffix>();
+        for (int i = 0; i < suggestions.length; i++) {
+            String title = SearchResultCache.normalize(suggestions[i].getTitle());
+            suffixList.add(new Suffix(title, i));
+            for (int j = title.indexOf(' '); j >= 0; j = title.indexOf(' ', j + 1)) {
+                suffixList.add(new Suffix(title.substring(j + 1), ~i));
+            }
+        }
+        Suffix[] sorted = suffixList.toArray(new Suffix[suffixList.size()]);
+        Arrays.sort(sorted);
+        String[] sortedKeys = new String[sorted.length];
+        int[] suffixes = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sortedKeys[i] = sorted[i].key;
+            suffixes[i] = sorted[i].owner;
+        }
+        TrieBuilder builder = new TrieBuilder(sortedKeys);
+        builder.build();
+        this.trie = new Trie(suggestions, suffixes, builder.labels.toString(),
+                builder.nodes);
+    }
+
+    /**
+     * @return whether the vocabulary is loaded
+     */
+    public boolean isLoaded() {
+        return this.trie != null;
+    }
+
+    /**
+     * @param fallback the fallback searcher, or null for none
+     */
+    public void setFallback(Searcher fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void search(SearchParameters parameters, Consumer<SearchResult> consumer) {
+        request(parameters, consumer);
+    }
+
+    @Override
+    public SearchRequest request(SearchParameters parameters, Consumer<SearchResult> consumer) {
+        SearchResult result = searchLocally(parameters);
+        if (result == null) {
+            if (this.fallback != null) {
+                return this.fallback.request(parameters, consumer);
+            }
+            result = new TrieResult(0, Collections.<Suggestion>emptyList(), true);
+        }
+        consumer.accept(result);
+        return SearchRequest.NONE;
+    }
+
+    /**
+     * @param parameters the search parameters
+     * @return the local result, or null if the vocabulary is not
+     *      loaded or does not match the term
+     */
+    private SearchResult searchLocally(SearchParameters parameters) {
+        String term = SearchResultCache.normalize(parameters.getTerm());
+        if (this.trie == null || term == null || term.isEmpty()) {
+            return null;
+        }
+        int node = this.trie.find(term);
+        if (node < 0) {
+            return null;
+        }
+        int start = Math.max(0, parameters.getStart());
+        int size = parameters.getSize() == null ? DEF_PAGE_SIZE : parameters.getSize();
+        return this.trie.search(node, start, size, parameters.isExactCount());
+    }
+
+}
@@ -0,0 +1,156 @@
+package org.reactome.web.widgets.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.reactome.web.widgets.interop.WebWorker;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.http.client.URL;
+
+/**
+ * A {@link Searcher} which searches in a dedicated Web Worker, so
+ * that fetching and decoding large responses does not block the UI
+ * thread. The worker posts back only the suggestion fields of the
+ * requested page, which are viewed in place by a {@link JsSearchResult}.
+ *
+ * The default worker script, <code>search-worker.js</code>, is in the
+ * widgets module public path. It calls a search service which responds
+ * as the {@code org.reactome.web.widgets.server.SearchServlet} does.
+ * A different worker script can be used if it follows the message
+ * protocol described in that script.
+ *
+ * If the worker fails, then the pending searches complete with the
+ * {@link SearchResult#FAILED} result, so that the
+ * {@link SearchScheduler} is not blocked and the failure is not
+ * cached.
+ */
+public class WorkerSearcher implements Searcher {
+
+    /**
+     * The default worker script name in the module public path.
+     */
+    public static final String WORKER_SCRIPT = "search-worker.js";
+
+    private final WebWorker worker;
+
+    private final Map<Integer, Consumer<SearchResult>> pending =
+            new HashMap<Integer, Consumer<SearchResult>>();
+
+    private int nextId;
+
+    /**
+     * @return whether the browser supports Web Workers
+     */
+    public static boolean isSupported() {
+        return WebWorker.isSupported();
+    }
+
+    /**
+     * Returns the URL of the default worker script for the given
+     * search service.
+     *
+     * @param serviceUrl the search service URL, resolved against the
+     *      worker script URL if relative
+     * @return the worker script URL
+     */
+    public static String getScriptUrl(String serviceUrl) {
+        return GWT.getModuleBaseForStaticFiles() + WORKER_SCRIPT +
+                "?service=" + URL.encodeQueryString(serviceUrl);
+    }
+
+    /**
+     * @param scriptUrl the worker script URL, e.g. from
+     *      {@link #getScriptUrl(String)}
+     */
+    public WorkerSearcher(String scriptUrl) {
+        this.worker = new WebWorker(scriptUrl);
+        this.worker.onmessage = new WebWorker.MessageHandler() {
+
+            @Override
+            public void handle(WebWorker.MessageEvent event) {
+                onResult((WebWorker.ResultMessage) event.data);
+            }
+
+        };
+        this.worker.onerror = new WebWorker.ErrorHandler() {
+
+            @Override
+            public void handle(Object event) {
+                failAll();
+            }
+
+        };
+    }
+
+    @Override
+    public void search(SearchParameters parameters, Consumer<SearchResult> consumer) {
+        request(parameters, consumer);
+    }
+
+    @Override
+    public SearchRequest request(SearchParameters parameters, Consumer<SearchResult> consumer) {
+        final int id = this.nextId++;
+        WebWorker.SearchMessage message = new WebWorker.SearchMessage();
+        message.id = id;
+        message.term = parameters.getTerm();
+        message.start = parameters.getStart();
+        Integer size = parameters.getSize();
+        message.size = size == null ? null : Double.valueOf(size);
+        message.cursor = parameters.getCursor();
+        message.exactCount = parameters.isExactCount();
+        this.pending.put(id, consumer);
+        this.worker.postMessage(message);
+        return new SearchRequest() {
+
+            @Override
+            public void cancel() {
+                if (pending.remove(id) != null) {
+                    WebWorker.SearchMessage cancel = new WebWorker.SearchMessage();
+                    cancel.id = id;
+                    cancel.cancel = true;
+                    worker.postMessage(cancel);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Terminates the worker. The pending searches complete with the
+     * {@link SearchResult#FAILED} result.
+     */
+    public void terminate() {
+        this.worker.terminate();
+        failAll();
+    }
+
+    private void onResult(WebWorker.ResultMessage message) {
+        Consumer<SearchResult> consumer = this.pending.remove(message.id);
+        if (consumer == null) {
+            // The search was cancelled.
+            return;
+        }
+        if (message.error != null) {
+            GWT.log("Worker search failed: " + message.error);
+            consumer.accept(SearchResult.FAILED);
+            return;
+        }
+        // The message is also the search result object.
+        Object result = message;
+        consumer.accept(new JsSearchResult((JsSearchResult.Data) result));
+    }
+
+    private void failAll() {
+        List<Consumer<SearchResult>> consumers =
+                new ArrayList<Consumer<SearchResult>>(this.pending.values());
+        this.pending.clear();
+        for (Consumer<SearchResult> consumer : consumers) {
+            consumer.accept(SearchResult.FAILED);
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package org.reactome.web.widgets.server;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.reactome.web.widgets.search.ColumnarSearchResult;
+import org.reactome.web.widgets.search.SearchResult;
+import org.reactome.web.widgets.search.Suggestion;
+
+/**
+ * Encodes a {@link SearchResult} page in the columnar JSON format
+ * decoded by {@link ColumnarSearchResult}. Each suggestion field is a
+ * column. The image URLs and secondary text items, which repeat across
+ * rows, are written once in a string dictionary and referenced by
+ * index. The secondary items of row <i>i</i> are the dictionary
+ * indexes from <code>secondaryOffsets[i]</code> up to
+ * <code>secondaryOffsets[i + 1]</code> in the <code>secondary</code>
+ * column. For example:
+ * <pre>
+ * {"v": 1, "numFound": 42,
+ *  "keys": ["R-HSA-1", "R-HSA-2"], "titles": ["...", "..."],
+ *  "dict": ["Homo sapiens", "cytosol", "icon.png"],
+ *  "images": [2, -1], "secondaryOffsets": [0, 2, 3], "secondary": [0, 1, 0]}
+ * </pre>
+ * where the number found is omitted if it is not known. An estimated
+ * number found is followed by <code>"numFoundExact": false</code>. A
+ * <code>"nextCursor"</code> string follows the number found if the
+ * result has a next cursor.
+ *
+ * The encoder is stateless and thread-safe.
+ */
+public class ColumnarEncoder {
+
+    /**
+     * The format version.
+     */
+    public static final int VERSION = ColumnarSearchResult.VERSION;
+
+    /**
+     * @param result the search result page
+     * @param out the writer
+     * @throws IOException if the result cannot be written
+     */
+    public void write(SearchResult result, Writer out) throws IOException {
+        List<Suggestion> entries = result.getEntries();
+        Map<String, Integer> indexes = new HashMap<String, Integer>();
+        List<String> dict = new ArrayList<String>();
+        int[] images = new int[entries.size()];
+        int[] offsets = new int[entries.size() + 1];
+        List<Integer> secondary = new ArrayList<Integer>();
+        for (int i = 0; i < entries.size(); i++) {
+            Suggestion suggestion = entries.get(i);
+            images[i] = suggestion.getImage() == null ? -1 :
+                    intern(suggestion.getImage().asString(), indexes, dict);
+            for (String text : suggestion.getSecondary()) {
+                secondary.add(intern(text, indexes, dict));
+            }
+            offsets[i + 1] = secondary.size();
+        }
+        out.write("{\"v\":");
+        out.write(Integer.toString(VERSION));
+        if (result.getNumFound() != null) {
+            out.write(",\"numFound\":");
+            out.write(result.getNumFound().toString());
+            if (!result.isNumFoundExact()) {
+                out.write(",\"numFoundExact\":false");
+            }
+        }
+        if (result.getNextCursor() != null) {
+            out.write(",\"nextCursor\":");
+            Json.writeString(result.getNextCursor(), out);
+        }
+        out.write(",\"keys\":[");
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Json.writeString(String.valueOf(entries.get(i).getKey()), out);
+        }
+        out.write("],\"titles\":[");
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Json.writeString(entries.get(i).getTitle(), out);
+        }
+        out.write("],\"dict\":[");
+        for (int i = 0; i < dict.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Json.writeString(dict.get(i), out);
+        }
+        out.write("],\"images\":");
+        writeInts(images, out);
+        out.write(",\"secondaryOffsets\":");
+        writeInts(offsets, out);
+        out.write(",\"secondary\":[");
+        for (int i = 0; i < secondary.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(secondary.get(i).toString());
+        }
+        out.write("]}");
+        out.flush();
+    }
+
+    private static int intern(String value, Map<String, Integer> indexes, List<String> dict) {
+        Integer index = indexes.get(value);
+        if (index == null) {
+            index = dict.size();
+            indexes.put(value, index);
+            dict.add(value);
+        }
+        return index;
+    }
+
+    private static void writeInts(int[] values, Writer out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(Integer.toString(values[i]));
+        }
+        out.write(']');
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.reactome.web.widgets.server;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of ranked {@link NGramIndex} matches.
+ */
+public class IndexResult {
+
+    private final int numFound;
+
+    private final List<SuggestionRecord> entries;
+
+    private final String nextCursor;
+
+    /**
+     * @param numFound the exact number of matches
+     * @param entries the matches on the requested page
+     */
+    public IndexResult(int numFound, List<SuggestionRecord> entries) {
+        this(numFound, entries, null);
+    }
+
+    /**
+     * @param numFound the exact number of matches
+     * @param entries the matches on the requested page
+     * @param nextCursor the cursor after the last entry, or null if
+     *      there are no more matches
+     */
+    public IndexResult(int numFound, List<SuggestionRecord> entries, String nextCursor) {
+        this.numFound = numFound;
+        this.entries = Collections.unmodifiableList(entries);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return the exact number of matches
+     */
+    public int getNumFound() {
+        return this.numFound;
+    }
+
+    /**
+     * @return the matches on the requested page
+     */
+    public List<SuggestionRecord> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * @return the cursor after the last entry, or null if there are
+     *      no more matches
+     */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.reactome.web.widgets.server;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The JSON writing helpers shared by the search response encoders.
+ */
+class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Writes the given string as a quoted JSON string.
+     *
+     * @param value the string
+     * @param out the writer
+     * @throws IOException if the string cannot be written
+     */
+    static void writeString(String value, Writer out) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                out.write("\\\"");
+                break;
+            case '\\':
+                out.write("\\\\");
+                break;
+            case '\n':
+                out.write("\\n");
+                break;
+            case '\r':
+                out.write("\\r");
+                break;
+            case '\t':
+                out.write("\\t");
+                break;
+            default:
+                // Escape the other control characters, the line
+                // separators and the angle bracket, so that the JSON
+                // can be embedded in a script or HTML.
+                if (c < 0x20 || c == '<' || c == 0x2028 || c == 0x2029) {
+                    String hex = Integer.toHexString(c);
+                    out.write("\\u");
+                    for (int j = hex.length(); j < 4; j++) {
+                        out.write('0');
+                    }
+                    out.write(hex);
+                } else {
+                    out.write(c);
+                }
+            }
+        }
+        out.write('"');
+    }
+
+}
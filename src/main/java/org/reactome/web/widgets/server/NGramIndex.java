@@ -0,0 +1,370 @@
+package org.reactome.web.widgets.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.reactome.web.widgets.search.SearchParameters;
+import org.reactome.web.widgets.search.SearchResultCache;
+import org.reactome.web.widgets.search.SuggestionMatcher;
+
+/**
+ * An in-memory typeahead index of suggestion records. The index
+ * maps each trigram of the whitespace-delimited words in the record
+ * title and secondary text to the sorted array of the records which
+ * contain it.
+ *
+ * A search matches a record if every word of the normalized term
+ * occurs, ignoring case, in the title or in a secondary text item.
+ * This agrees with {@link SuggestionMatcher#DEFAULT}, so that the
+ * client can refine a complete result locally. The trigram postings
+ * of the term words narrow the candidates, which are then verified.
+ * Words shorter than a trigram are verified only.
+ *
+ * The matches are ranked as follows:
+ * <ol>
+ * <li>the title is the term</li>
+ * <li>the title starts with the term</li>
+ * <li>every term word starts a title word</li>
+ * <li>every term word occurs in the title</li>
+ * <li>the other matches</li>
+ * </ol>
+ * Matches of the same rank are ordered by title length and then
+ * by record order.
+ *
+ * Each page has a cursor for the following page. A search with the
+ * cursor of a previous search of the same index and term resumes
+ * after the cursor, so that the preceding matches are counted but
+ * not ranked. Only the requested page of matches is sorted. A cursor
+ * of another index, e.g. after the index is replaced, is ignored
+ * and the search pages by offset.
+ *
+ * The index is immutable and can be searched from any number of
+ * threads at once.
+ */
+public class NGramIndex {
+
+    /**
+     * The n-gram length.
+     */
+    public static final int N = 3;
+
+    /**
+     * The page size if the search parameters do not have a size.
+     */
+    public static final int DEF_PAGE_SIZE = 10;
+
+    private static final int[] NO_RECORDS = new int[0];
+
+    /**
+     * The rank which precedes every match.
+     */
+    private static final long NO_CURSOR = -1;
+
+    /**
+     * A growable posting list used while building the index.
+     */
+    private static class PostingBuilder {
+        private int[] records = new int[4];
+        private int size;
+
+        private void add(int record) {
+            // Each record is added in order, possibly several times.
+            if (this.size > 0 && this.records[this.size - 1] == record) {
+                return;
+            }
+            if (this.size == this.records.length) {
+                this.records = Arrays.copyOf(this.records, 2 * this.size);
+            }
+            this.records[this.size++] = record;
+        }
+
+        private int[] build() {
+            return Arrays.copyOf(this.records, this.size);
+        }
+    }
+
+    private final SuggestionRecord[] records;
+
+    /**
+     * The lower-case titles.
+     */
+    private final String[] titles;
+
+    /**
+     * The lower-case title and secondary text lines.
+     */
+    private final String[] texts;
+
+    private final Map<String, int[]> postings;
+
+    /**
+     * The cursor prefix which identifies this index.
+     */
+    private final String cursorPrefix;
+
+    /**
+     * @param records the indexed records in their default order
+     */
+    public NGramIndex(Collection<SuggestionRecord> records) {
+        this.records = records.toArray(new SuggestionRecord[records.size()]);
+        this.titles = new String[this.records.length];
+        this.texts = new String[this.records.length];
+        Map<String, PostingBuilder> builders = new HashMap<String, PostingBuilder>();
+        for (int i = 0; i < this.records.length; i++) {
+            SuggestionRecord record = this.records[i];
+            this.titles[i] = record.getTitle().toLowerCase();
+            StringBuilder text = new StringBuilder(this.titles[i]);
+            for (String secondary : record.getSecondary()) {
+                text.append('\n').append(secondary.toLowerCase());
+            }
+            this.texts[i] = text.toString();
+            for (String word : this.texts[i].split("\\s+")) {
+                for (int j = 0; j + N <= word.length(); j++) {
+                    String gram = word.substring(j, j + N);
+                    PostingBuilder builder = builders.get(gram);
+                    if (builder == null) {
+                        builder = new PostingBuilder();
+                        builders.put(gram, builder);
+                    }
+                    builder.add(i);
+                }
+            }
+        }
+        Map<String, int[]> postings = new HashMap<String, int[]>(2 * builders.size());
+        for (Map.Entry<String, PostingBuilder> entry : builders.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().build());
+        }
+        this.postings = postings;
+        this.cursorPrefix = Integer.toHexString(System.identityHashCode(this)) + '-';
+    }
+
+    /**
+     * @return the number of indexed records
+     */
+    public int size() {
+        return this.records.length;
+    }
+
+    /**
+     * @return the number of distinct indexed trigrams
+     */
+    public int getGramCount() {
+        return this.postings.size();
+    }
+
+    /**
+     * @param parameters the search term, start, page size and cursor
+     * @return the ranked page of matches, the exact match count and
+     *      the next page cursor
+     */
+    public IndexResult search(SearchParameters parameters) {
+        String term = SearchResultCache.normalize(parameters.getTerm());
+        if (term == null || term.isEmpty()) {
+            return new IndexResult(0, Collections.<SuggestionRecord>emptyList());
+        }
+        String[] words = term.split(" ");
+        int[] candidates = candidates(words);
+        long after = parseCursor(parameters.getCursor());
+        // Verify and rank the candidates. Only the matches after the
+        // cursor are kept.
+        long[] ranks = new long[candidates == null ? this.records.length : candidates.length];
+        int numFound = 0;
+        int rankCnt = 0;
+        for (int i = 0; i < ranks.length; i++) {
+            int record = candidates == null ? i : candidates[i];
+            if (matches(record, words)) {
+                numFound++;
+                long rank = rank(record, term, words);
+                if (rank > after) {
+                    ranks[rankCnt++] = rank;
+                }
+            }
+        }
+        int start = after == NO_CURSOR ? Math.max(0, parameters.getStart()) : 0;
+        int size = parameters.getSize() == null ? DEF_PAGE_SIZE : parameters.getSize();
+        int end = (int) Math.min(rankCnt, (long) start + size);
+        sortSmallest(ranks, rankCnt, end);
+        List<SuggestionRecord> entries = new ArrayList<SuggestionRecord>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            entries.add(this.records[(int) ranks[i]]);
+        }
+        String nextCursor = end > start && end < rankCnt ?
+                this.cursorPrefix + Long.toHexString(ranks[end - 1]) : null;
+        return new IndexResult(numFound, entries, nextCursor);
+    }
+
+    /**
+     * @param cursor the search cursor, or null
+     * @return the rank encoded by a cursor of this index, or
+     *      {@link #NO_CURSOR} if there is no valid cursor
+     */
+    private long parseCursor(String cursor) {
+        if (cursor == null || !cursor.startsWith(this.cursorPrefix)) {
+            return NO_CURSOR;
+        }
+        try {
+            return Long.parseLong(cursor.substring(this.cursorPrefix.length()), 16);
+        } catch (NumberFormatException e) {
+            return NO_CURSOR;
+        }
+    }
+
+    /**
+     * Moves the given number of smallest ranks to the front of the
+     * array in sorted order. If only a few ranks are wanted, then a
+     * bounded max-heap selects them without sorting the rest.
+     *
+     * @param ranks the ranks
+     * @param rankCnt the number of ranks in the array
+     * @param count the number of smallest ranks to sort
+     */
+    private static void sortSmallest(long[] ranks, int rankCnt, int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (count >= rankCnt / 4) {
+            Arrays.sort(ranks, 0, rankCnt);
+            return;
+        }
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(ranks, i, count);
+        }
+        for (int i = count; i < rankCnt; i++) {
+            if (ranks[i] < ranks[0]) {
+                ranks[0] = ranks[i];
+                siftDown(ranks, 0, count);
+            }
+        }
+        Arrays.sort(ranks, 0, count);
+    }
+
+    private static void siftDown(long[] heap, int index, int size) {
+        long value = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * @param words the term words
+     * @return the sorted records which contain every trigram of the
+     *      words, or null if no word is long enough to have a trigram
+     */
+    private int[] candidates(String[] words) {
+        List<int[]> lists = new ArrayList<int[]>();
+        for (String word : words) {
+            for (int j = 0; j + N <= word.length(); j++) {
+                int[] records = this.postings.get(word.substring(j, j + N));
+                if (records == null) {
+                    return NO_RECORDS;
+                }
+                lists.add(records);
+            }
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+        // Intersect the shortest lists first.
+        Collections.sort(lists, new Comparator<int[]>() {
+
+            @Override
+            public int compare(int[] list, int[] other) {
+                return Integer.compare(list.length, other.length);
+            }
+
+        });
+        int[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+        return candidates;
+    }
+
+    private static int[] intersect(int[] list, int[] other) {
+        int[] common = new int[Math.min(list.length, other.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < list.length && j < other.length) {
+            if (list[i] < other[j]) {
+                i++;
+            } else if (list[i] > other[j]) {
+                j++;
+            } else {
+                common[size++] = list[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, size);
+    }
+
+    private boolean matches(int record, String[] words) {
+        String text = this.texts[record];
+        for (String word : words) {
+            if (!text.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the record rank as a long which sorts by score, then
+     * title length and then record order.
+     */
+    private long rank(int record, String term, String[] words) {
+        String title = this.titles[record];
+        long score;
+        if (title.equals(term)) {
+            score = 0;
+        } else if (title.startsWith(term)) {
+            score = 1;
+        } else if (startsWords(title, words)) {
+            score = 2;
+        } else if (containsWords(title, words)) {
+            score = 3;
+        } else {
+            score = 4;
+        }
+        long length = Math.min(title.length(), 0xFFFFFF);
+        return score << 56 | length << 32 | record;
+    }
+
+    private static boolean startsWords(String title, String[] words) {
+        for (String word : words) {
+            if (!title.startsWith(word) && !title.contains(" " + word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsWords(String title, String[] words) {
+        for (String word : words) {
+            if (!title.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,282 @@
+package org.reactome.web.widgets.server;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.reactome.web.widgets.search.BasicSuggestion;
+import org.reactome.web.widgets.search.SearchParameters;
+import org.reactome.web.widgets.search.SearchResult;
+import org.reactome.web.widgets.search.Suggestion;
+
+import com.google.gwt.safehtml.shared.SafeUri;
+import com.google.gwt.safehtml.shared.UriUtils;
+
+/**
+ * Serves {@link NGramIndex} searches as JSON. The request parameters
+ * are the search <code>term</code>, the zero-based <code>start</code>
+ * row, the page <code>size</code>, the optional <code>cursor</code>
+ * of the preceding page and the optional <code>count=false</code> flag,
+ * which is ignored since the index always counts exactly. The
+ * response has the form:
+ * <pre>
+ * {"numFound": 42, "nextCursor": "...", "entries": [
+ *   {"key": "R-HSA-1", "title": "...", "secondary": ["..."], "image": "..."}
+ * ]}
+ * </pre>
+ * where the next cursor is omitted on the last page and the image
+ * is omitted if the record does not have one. If the
+ * <code>format</code> request parameter is <code>columnar</code>, then
+ * the page is written by the {@link ColumnarEncoder} instead.
+ *
+ * The response has an ETag which is the SHA-256 digest of the body. A
+ * request whose <code>If-None-Match</code> header matches the ETag
+ * receives a <code>304 Not Modified</code> response without a body.
+ * The response must be revalidated before it is reused.
+ *
+ * The index is either given to the constructor, e.g. when the
+ * servlet is registered programmatically, or created by the
+ * {@link #createIndex()} method of a subclass. The index can be
+ * replaced while the servlet is serving requests.
+ */
+public class SearchServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private static final String COLUMNAR = "columnar";
+
+    private final ColumnarEncoder columnarEncoder = new ColumnarEncoder();
+
+    private transient volatile NGramIndex index;
+
+    /**
+     * Creates a servlet whose index is created by {@link #createIndex()}.
+     */
+    public SearchServlet() {
+    }
+
+    /**
+     * @param index the search index
+     */
+    public SearchServlet(NGramIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void init() throws ServletException {
+        if (this.index == null) {
+            this.index = createIndex();
+        }
+    }
+
+    /**
+     * Creates the index when the servlet is initialized without an
+     * index. This implementation throws an exception.
+     *
+     * @return the search index
+     * @throws ServletException if the index cannot be created
+     */
+    protected NGramIndex createIndex() throws ServletException {
+        throw new ServletException("The search servlet does not have an index");
+    }
+
+    /**
+     * @return the search index
+     */
+    public NGramIndex getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Replaces the index, e.g. when the suggestion records change.
+     * Searches in progress complete against the previous index.
+     *
+     * @param index the new search index
+     */
+    public void setIndex(NGramIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        SearchParameters parameters;
+        try {
+            parameters = parseParameters(request);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        NGramIndex index = this.index;
+        IndexResult result = index.search(parameters);
+        StringWriter body = new StringWriter();
+        if (COLUMNAR.equals(request.getParameter("format"))) {
+            this.columnarEncoder.write(toSearchResult(result), body);
+        } else {
+            writeResult(result, body);
+        }
+        String json = body.toString();
+        String etag = "\"" + digest(json) + "\"";
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", "no-cache");
+        if (matches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(CONTENT_TYPE);
+        response.getWriter().write(json);
+    }
+
+    private static SearchResult toSearchResult(IndexResult result) {
+        final Integer numFound = result.getNumFound();
+        final String nextCursor = result.getNextCursor();
+        final List<Suggestion> entries = new ArrayList<Suggestion>();
+        for (SuggestionRecord record : result.getEntries()) {
+            SafeUri image = record.getImage() == null ? null :
+                    UriUtils.fromTrustedString(record.getImage());
+            entries.add(new BasicSuggestion(record.getKey(), record.getTitle(), image,
+                    record.getSecondary()));
+        }
+        return new SearchResult() {
+
+            @Override
+            public Integer getNumFound() {
+                return numFound;
+            }
+
+            @Override
+            public List<Suggestion> getEntries() {
+                return entries;
+            }
+
+            @Override
+            public String getNextCursor() {
+                return nextCursor;
+            }
+
+        };
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            // A weak comparison ignores the weak validator prefix.
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param request the search request
+     * @return the search parameters
+     * @throws IllegalArgumentException if a parameter is invalid
+     */
+    protected SearchParameters parseParameters(HttpServletRequest request) {
+        String term = request.getParameter("term");
+        if (term == null || term.trim().isEmpty()) {
+            throw new IllegalArgumentException("The search term is missing");
+        }
+        int start = parseInt(request, "start", 0);
+        int size = parseInt(request, "size", NGramIndex.DEF_PAGE_SIZE);
+        if (start < 0 || size < 0) {
+            throw new IllegalArgumentException("The start and size must not be negative");
+        }
+        String cursor = request.getParameter("cursor");
+        SearchParameters parameters = new SearchParameters(term, start, size,
+                cursor == null || cursor.isEmpty() ? null : cursor);
+        parameters.setExactCount(!"false".equals(request.getParameter("count")));
+        return parameters;
+    }
+
+    /**
+     * @param body the response body
+     * @return the Base64 SHA-256 digest of the body
+     */
+    private static String digest(String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(body.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int parseInt(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The " + name + " is not an integer: " + value);
+        }
+    }
+
+    /**
+     * Writes the result in the JSON form described above.
+     *
+     * @param result the search result
+     * @param out the response writer
+     * @throws IOException if the result cannot be written
+     */
+    protected void writeResult(IndexResult result, Writer out) throws IOException {
+        out.write("{\"numFound\":");
+        out.write(Integer.toString(result.getNumFound()));
+        if (result.getNextCursor() != null) {
+            out.write(",\"nextCursor\":");
+            Json.writeString(result.getNextCursor(), out);
+        }
+        out.write(",\"entries\":[");
+        boolean isFirst = true;
+        for (SuggestionRecord record : result.getEntries()) {
+            if (!isFirst) {
+                out.write(',');
+            }
+            isFirst = false;
+            out.write("{\"key\":");
+            Json.writeString(record.getKey(), out);
+            out.write(",\"title\":");
+            Json.writeString(record.getTitle(), out);
+            out.write(",\"secondary\":[");
+            for (int i = 0; i < record.getSecondary().size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                Json.writeString(record.getSecondary().get(i), out);
+            }
+            out.write(']');
+            if (record.getImage() != null) {
+                out.write(",\"image\":");
+                Json.writeString(record.getImage(), out);
+            }
+            out.write('}');
+        }
+        out.write("]}");
+        out.flush();
+    }
+
+}
@@ -0,0 +1,61 @@
+package org.reactome.web.widgets.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable server-side suggestion, the JVM counterpart of the
+ * client {@link org.reactome.web.widgets.search.Suggestion}.
+ */
+public class SuggestionRecord {
+
+    private final String key;
+
+    private final String title;
+
+    private final List<String> secondary;
+
+    private final String image;
+
+    /**
+     * @param key the unique suggestion key
+     * @param title the suggestion title
+     */
+    public SuggestionRecord(String key, String title) {
+        this(key, title, Collections.<String>emptyList(), null);
+    }
+
+    /**
+     * @param key the unique suggestion key
+     * @param title the suggestion title
+     * @param secondary the secondary text items
+     * @param image the image URL, or null if there is no image
+     */
+    public SuggestionRecord(String key, String title, List<String> secondary, String image) {
+        if (key == null || title == null) {
+            throw new IllegalArgumentException("The suggestion key and title are required");
+        }
+        this.key = key;
+        this.title = title;
+        this.secondary = Collections.unmodifiableList(new ArrayList<String>(secondary));
+        this.image = image;
+    }
+
+    public String getKey() {
+        return this.key;
+    }
+
+    public String getTitle() {
+        return this.title;
+    }
+
+    public List<String> getSecondary() {
+        return this.secondary;
+    }
+
+    public String getImage() {
+        return this.image;
+    }
+
+}
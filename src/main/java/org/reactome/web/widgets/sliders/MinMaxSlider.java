@@ -1,17 +1,52 @@
 package org.reactome.web.widgets.sliders;
 
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.InputElement;
 import com.google.gwt.dom.client.TableCellElement;
 import com.google.gwt.dom.client.TableElement;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.Event.NativePreviewEvent;
+import com.google.gwt.user.client.Event.NativePreviewHandler;
+import com.google.gwt.user.client.EventListener;
+import com.google.gwt.user.client.Timer;
 
+/**
+ * A minimum and maximum range slider. The values can be polled with
+ * {@link #getValues()} or received by listeners:
+ * <ul>
+ * <li>the change listener receives the values while the user drags
+ *     a slider handle, at most once per animation frame by default
+ *     or once per {@link #setMinInterval(int)} interval</li>
+ * <li>the commit listener receives the values when the user releases
+ *     the slider or enters a value</li>
+ * </ul>
+ * A listener is only called if the values differ from the values
+ * it received last.
+ */
 public class MinMaxSlider {
     interface ConfigUiBinder extends UiBinder<TableElement, MinMaxSlider> {}
     private static final ConfigUiBinder uiBinder = GWT.create(ConfigUiBinder.class);
 
+    /**
+     * The events which start a drag or set the values.
+     */
+    private static final int SLIDER_EVENTS =
+            Event.ONMOUSEDOWN | Event.ONTOUCHSTART | Event.ONKEYUP;
+
     @UiField TableCellElement slider;
 
     @UiField InputElement min;
@@ -19,19 +54,231 @@ public class MinMaxSlider {
     @UiField InputElement max;
 
     private Element root;
-    
+
+    private Consumer<int[]> changeListener;
+
+    private Consumer<int[]> commitListener;
+
+    private int minInterval;
+
+    /**
+     * The values last received by the change listener.
+     */
+    private int[] changed;
+
+    /**
+     * The values last received by the commit listener.
+     */
+    private int[] committed;
+
+    /**
+     * The time since the change listener was last called, or null if
+     * it has not been called.
+     */
+    private Duration sinceChange;
+
+    /**
+     * The pending animation frame change, or null if there is none.
+     */
+    private AnimationHandle frame;
+
+    /**
+     * The interval throttled change.
+     */
+    private final Timer changeTimer = new Timer() {
+
+        @Override
+        public void run() {
+            fireChange();
+        }
+
+    };
+
+    /**
+     * The drag move and release handler, or null if the user is not
+     * dragging.
+     */
+    private HandlerRegistration drag;
+
     public MinMaxSlider(int[] bounds, int[] start) {
         root = uiBinder.createAndBindUi(this);
         InputElement[] inputs = {min, max};
         // Delegate to the jsinterop wrapper.
         org.reactome.web.widgets.interop.MinMaxSlider.create(slider, inputs, bounds, start);
+        changed = copyValues();
+        committed = changed;
+        DOM.sinkEvents(slider, SLIDER_EVENTS);
+        Event.setEventListener(slider, new EventListener() {
+
+            @Override
+            public void onBrowserEvent(Event event) {
+                if (event.getTypeInt() == Event.ONKEYUP) {
+                    scheduleCommit();
+                } else {
+                    startDrag();
+                }
+            }
+
+        });
+        EventListener inputListener = new EventListener() {
+
+            @Override
+            public void onBrowserEvent(Event event) {
+                scheduleCommit();
+            }
+
+        };
+        for (InputElement input : inputs) {
+            DOM.sinkEvents(input, Event.ONCHANGE);
+            Event.setEventListener(input, inputListener);
+        }
     }
 
     public Element getElement() {
         return root;
     }
-    
+
     public int[] getValues() {
         return org.reactome.web.widgets.interop.MinMaxSlider.getValues(slider);
     }
+
+    /**
+     * @return a copy of the values which is not shared with the
+     *      native slider
+     */
+    private int[] copyValues() {
+        int[] values = getValues();
+        return Arrays.copyOf(values, values.length);
+    }
+
+    /**
+     * @param listener the listener which receives the values while
+     *      the user drags, or null for none
+     */
+    public void setChangeListener(Consumer<int[]> listener) {
+        changeListener = listener;
+    }
+
+    /**
+     * @param listener the listener which receives the values when the
+     *      user releases the slider or enters a value, or null for none
+     */
+    public void setCommitListener(Consumer<int[]> listener) {
+        commitListener = listener;
+    }
+
+    /**
+     * Throttles the change listener. The default interval is zero,
+     * which calls the change listener at most once per animation
+     * frame.
+     *
+     * @param minInterval the minimum time between change listener
+     *      calls in milliseconds, or zero to coalesce the changes per
+     *      animation frame
+     */
+    public void setMinInterval(int minInterval) {
+        this.minInterval = minInterval;
+    }
+
+    /**
+     * Follows the pointer until it is released anywhere on the page.
+     */
+    private void startDrag() {
+        if (drag != null) {
+            return;
+        }
+        drag = Event.addNativePreviewHandler(new NativePreviewHandler() {
+
+            @Override
+            public void onPreviewNativeEvent(NativePreviewEvent event) {
+                switch (event.getTypeInt()) {
+                case Event.ONMOUSEMOVE:
+                case Event.ONTOUCHMOVE:
+                    scheduleChange();
+                    break;
+                case Event.ONMOUSEUP:
+                case Event.ONTOUCHEND:
+                case Event.ONTOUCHCANCEL:
+                    endDrag();
+                    break;
+                default:
+                    break;
+                }
+            }
+
+        });
+    }
+
+    private void endDrag() {
+        drag.removeHandler();
+        drag = null;
+        scheduleCommit();
+    }
+
+    /**
+     * Schedules a change listener call, unless one is pending. The
+     * slider updates its values after the preview of the move event,
+     * so the values are read later.
+     */
+    private void scheduleChange() {
+        if (frame != null || changeTimer.isRunning()) {
+            return;
+        }
+        if (minInterval <= 0) {
+            frame = AnimationScheduler.get().requestAnimationFrame(new AnimationCallback() {
+
+                @Override
+                public void execute(double timestamp) {
+                    frame = null;
+                    fireChange();
+                }
+
+            });
+        } else {
+            int elapsed = sinceChange == null ? minInterval : sinceChange.elapsedMillis();
+            changeTimer.schedule(Math.max(0, minInterval - elapsed));
+        }
+    }
+
+    /**
+     * Calls the change and commit listeners after the slider has
+     * handled the release or entry event.
+     */
+    private void scheduleCommit() {
+        Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+
+            @Override
+            public void execute() {
+                if (frame != null) {
+                    frame.cancel();
+                    frame = null;
+                }
+                changeTimer.cancel();
+                fireChange();
+                fireCommit();
+            }
+
+        });
+    }
+
+    private void fireChange() {
+        int[] values = copyValues();
+        if (!Arrays.equals(values, changed)) {
+            changed = values;
+            sinceChange = new Duration();
+            if (changeListener != null) {
+                changeListener.accept(values);
+            }
+        }
+    }
+
+    private void fireCommit() {
+        int[] values = copyValues();
+        if (!Arrays.equals(values, committed)) {
+            committed = values;
+            if (commitListener != null) {
+                commitListener.accept(values);
+            }
+        }
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * The search worker used by org.reactome.web.widgets.search.WorkerSearcher.
+ *
+ * The worker fetches and decodes the search service JSON off the UI
+ * thread, and posts back only the suggestion fields of the requested page.
+ * The search service URL is given by the worker script "service"
+ * query parameter. The service is called with the term, start, size,
+ * cursor and count query parameters, and responds with the JSON described in
+ * org.reactome.web.widgets.server.SearchServlet.
+ *
+ * Request message:  {id, term, start, size, cursor, exactCount}
+ *                   or {id, cancel: true}
+ * Response message: {id, numFound, numFoundExact, nextCursor,
+ *                    entries: [{key, keyType, title, image, secondary}, ...]}
+ *                   or {id, error}
+ *
+ * The entry key and the optional keyType are passed through unchanged,
+ * so that org.reactome.web.widgets.search.JsSuggestion restores the
+ * key type as it does for the persistent cache.
+ */
+(function () {
+    'use strict';
+
+    var service = new URL(self.location.href).searchParams.get('service');
+    var pending = {};
+
+    function toEntry(entry) {
+        return {
+            key: entry.key,
+            keyType: entry.keyType,
+            title: entry.title,
+            image: entry.image || null,
+            secondary: entry.secondary || []
+        };
+    }
+
+    self.onmessage = function (event) {
+        var request = event.data;
+        if (request.cancel) {
+            var cancelled = pending[request.id];
+            if (cancelled) {
+                delete pending[request.id];
+                cancelled.abort();
+            }
+            return;
+        }
+        var url = new URL(service, self.location.href);
+        url.searchParams.set('term', request.term);
+        url.searchParams.set('start', request.start);
+        if (request.size != null) {
+            url.searchParams.set('size', request.size);
+        }
+        if (request.cursor != null) {
+            url.searchParams.set('cursor', request.cursor);
+        }
+        if (!request.exactCount) {
+            url.searchParams.set('count', 'false');
+        }
+        var controller = new AbortController();
+        pending[request.id] = controller;
+        fetch(url.toString(), {signal: controller.signal, credentials: 'same-origin'})
+            .then(function (response) {
+                if (!response.ok) {
+                    throw new Error('The search service responded with ' + response.status);
+                }
+                return response.json();
+            })
+            .then(function (result) {
+                if (pending[request.id]) {
+                    delete pending[request.id];
+                    self.postMessage({
+                        id: request.id,
+                        numFound: result.numFound == null ? null : result.numFound,
+                        numFoundExact: result.numFoundExact !== false,
+                        nextCursor: result.nextCursor == null ? null : result.nextCursor,
+                        entries: (result.entries || []).map(toEntry)
+                    });
+                }
+            })
+            .catch(function (error) {
+                if (pending[request.id]) {
+                    delete pending[request.id];
+                    self.postMessage({id: request.id, error: String(error)});
+                }
+            });
+    };
+})();
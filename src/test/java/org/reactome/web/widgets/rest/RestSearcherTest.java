@@ -0,0 +1,173 @@
+package org.reactome.web.widgets.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.fusesource.restygwt.client.Resource;
+import org.junit.Test;
+import org.reactome.web.widgets.search.SearchParameters;
+import org.reactome.web.widgets.search.SearchRequest;
+import org.reactome.web.widgets.search.SearchResult;
+import org.reactome.web.widgets.search.SearchResultCollector;
+
+import com.google.gwt.http.client.Header;
+import com.google.gwt.http.client.RequestCallback;
+import com.google.gwt.http.client.Response;
+
+/**
+ * Tests the {@link RestSearcher} response handling against a stub
+ * search service.
+ */
+public class RestSearcherTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    /**
+     * A searcher whose requests are answered by a stub service. The
+     * response body is the result count. The <code>error</code> term
+     * responds with a server error, the <code>down</code> term fails
+     * the request, and the <code>garbage</code> term responds with a
+     * body which cannot be decoded.
+     */
+    private static class StubSearcher extends RestSearcher {
+
+        private final List<String> ifNoneMatch = new ArrayList<String>();
+
+        private int decodeCount;
+
+        private StubSearcher() {
+            super("search");
+        }
+
+        @Override
+        protected Resource getResource(SearchParameters parameters) {
+            return new Resource("search?term=" + parameters.getTerm());
+        }
+
+        @Override
+        protected SearchRequest send(Resource resource, String etag, RequestCallback callback) {
+            this.ifNoneMatch.add(etag);
+            String term = resource.getQuery().substring("term=".length());
+            if ("down".equals(term)) {
+                callback.onError(null, new RuntimeException("The service is down"));
+            } else if ("error".equals(term)) {
+                callback.onResponseReceived(null, response(Response.SC_INTERNAL_SERVER_ERROR, null, ""));
+            } else if ("garbage".equals(term)) {
+                callback.onResponseReceived(null, response(Response.SC_OK, ETAG, "{\"numFound\":"));
+            } else if (ETAG.equals(etag)) {
+                callback.onResponseReceived(null, response(Response.SC_NOT_MODIFIED, ETAG, ""));
+            } else {
+                callback.onResponseReceived(null, response(Response.SC_OK, ETAG, "2"));
+            }
+            return new SearchRequest() {
+
+                @Override
+                public void cancel() {
+                }
+
+            };
+        }
+
+        @Override
+        protected SearchResult decode(String text) {
+            this.decodeCount++;
+            SearchResultCollector result = new SearchResultCollector();
+            result.onCount(Integer.parseInt(text));
+            result.onComplete();
+            return result;
+        }
+
+    }
+
+    private static Response response(final int status, final String etag, final String text) {
+        return new Response() {
+
+            @Override
+            public String getHeader(String header) {
+                return "ETag".equals(header) ? etag : null;
+            }
+
+            @Override
+            public Header[] getHeaders() {
+                return new Header[0];
+            }
+
+            @Override
+            public String getHeadersAsString() {
+                return "";
+            }
+
+            @Override
+            public int getStatusCode() {
+                return status;
+            }
+
+            @Override
+            public String getStatusText() {
+                return "";
+            }
+
+            @Override
+            public String getText() {
+                return text;
+            }
+
+        };
+    }
+
+    private static SearchResult search(RestSearcher searcher, String term) {
+        final List<SearchResult> results = new ArrayList<SearchResult>();
+        searcher.search(new SearchParameters(term, 0, 10), new Consumer<SearchResult>() {
+
+            @Override
+            public void accept(SearchResult result) {
+                results.add(result);
+            }
+
+        });
+        assertEquals("The consumer was not called once", 1, results.size());
+        return results.get(0);
+    }
+
+    @Test
+    public void testNotModifiedReusesResult() {
+        StubSearcher searcher = new StubSearcher();
+        SearchResult first = search(searcher, "mem");
+        assertFalse("The search failed", first.isFailed());
+        assertEquals("The count is incorrect", Integer.valueOf(2), first.getNumFound());
+        SearchResult second = search(searcher, "mem");
+        assertSame("The not modified result was not reused", first, second);
+        assertNull("The first search was conditional", searcher.ifNoneMatch.get(0));
+        assertEquals("The repeated search was not revalidated", ETAG, searcher.ifNoneMatch.get(1));
+        assertEquals("The not modified response was decoded", 1, searcher.decodeCount);
+    }
+
+    @Test
+    public void testClearValidators() {
+        StubSearcher searcher = new StubSearcher();
+        SearchResult first = search(searcher, "mem");
+        searcher.clearValidators();
+        SearchResult second = search(searcher, "mem");
+        assertNull("The search was revalidated", searcher.ifNoneMatch.get(1));
+        assertEquals("The count is incorrect", first.getNumFound(), second.getNumFound());
+    }
+
+    @Test
+    public void testFailures() {
+        StubSearcher searcher = new StubSearcher();
+        assertSame("The server error did not fail", SearchResult.FAILED, search(searcher, "error"));
+        assertSame("The request failure did not fail", SearchResult.FAILED, search(searcher, "down"));
+        assertSame("The undecodable response did not fail", SearchResult.FAILED,
+                search(searcher, "garbage"));
+        // A failed response is not revalidated.
+        search(searcher, "garbage");
+        assertNull("The failed response was revalidated", searcher.ifNoneMatch.get(3));
+    }
+
+}
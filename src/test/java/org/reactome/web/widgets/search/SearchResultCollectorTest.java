@@ -0,0 +1,69 @@
+package org.reactome.web.widgets.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gwt.safehtml.shared.SafeUri;
+
+/**
+ * Tests the {@link SearchResultCollector} chunk assembly.
+ */
+public class SearchResultCollectorTest {
+
+    private static Suggestion suggestion(final String title) {
+        return new Suggestion() {
+
+            @Override
+            public Object getKey() {
+                return title;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public SafeUri getImage() {
+                return null;
+            }
+
+            @Override
+            public List<String> getSecondary() {
+                return Collections.emptyList();
+            }
+
+        };
+    }
+
+    @Test
+    public void testOutOfOrderChunks() {
+        Suggestion a = suggestion("a");
+        Suggestion b = suggestion("b");
+        Suggestion c = suggestion("c");
+        SearchResultCollector collector = new SearchResultCollector();
+        collector.onChunk(2, Collections.singletonList(c));
+        collector.onChunk(0, Arrays.asList(a, b));
+        collector.onComplete();
+        assertFalse("The filled result failed", collector.isFailed());
+        assertEquals("The entries are incorrect", Arrays.asList(a, b, c),
+                collector.getEntries());
+    }
+
+    @Test
+    public void testGapFails() {
+        SearchResultCollector collector = new SearchResultCollector();
+        collector.onChunk(0, Collections.singletonList(suggestion("a")));
+        collector.onChunk(2, Collections.singletonList(suggestion("c")));
+        collector.onComplete();
+        assertTrue("The result with a gap did not fail", collector.isFailed());
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.reactome.web.widgets.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the {@link SearchScheduler} queue overflow and cancellation.
+ */
+public class SearchSchedulerTest {
+
+    /**
+     * A searcher which holds each search until it is answered.
+     */
+    private static class HeldSearcher implements Searcher {
+        private final List<String> terms = new ArrayList<String>();
+        private final List<Consumer<SearchResult>> consumers =
+                new ArrayList<Consumer<SearchResult>>();
+
+        @Override
+        public void search(SearchParameters parameters, Consumer<SearchResult> consumer) {
+            this.terms.add(parameters.getTerm());
+            this.consumers.add(consumer);
+        }
+
+        private void answer(int index) {
+            this.consumers.get(index).accept(new SearchResult() {
+
+                @Override
+                public Integer getNumFound() {
+                    return 0;
+                }
+
+                @Override
+                public List<Suggestion> getEntries() {
+                    return Collections.emptyList();
+                }
+
+            });
+        }
+    }
+
+    private final HeldSearcher searcher = new HeldSearcher();
+
+    private final SearchScheduler scheduler = new SearchScheduler(searcher, 1, 1);
+
+    private final Map<String, SearchResult> results = new HashMap<String, SearchResult>();
+
+    @After
+    public void tearDown() {
+        SearchInstrumentation.setMetrics(null);
+    }
+
+    private SearchRequest submit(final String term, SearchPriority priority) {
+        return this.scheduler.submit(new SearchParameters(term, 0, 10), priority,
+                new Consumer<SearchResult>() {
+
+            @Override
+            public void accept(SearchResult result) {
+                results.put(term, result);
+            }
+
+        });
+    }
+
+    @Test
+    public void testIdleOverflowFailsOldest() {
+        submit("running", SearchPriority.VISIBLE);
+        submit("first", SearchPriority.IDLE);
+        submit("second", SearchPriority.IDLE);
+        // The oldest background search is dropped as failed.
+        assertTrue("The dropped search did not complete", results.containsKey("first"));
+        assertTrue("The dropped search did not fail", results.get("first").isFailed());
+        assertFalse("The newer search was dropped", results.containsKey("second"));
+        // The newer search is dispatched when the running search completes.
+        searcher.answer(0);
+        assertEquals("The queued search was not dispatched", "second", searcher.terms.get(1));
+        searcher.answer(1);
+        assertFalse("The queued search failed", results.get("second").isFailed());
+    }
+
+    @Test
+    public void testVisibleOverflowKeepsEverySearch() {
+        String[] terms = {"running", "a", "b", "c", "d"};
+        for (String term : terms) {
+            submit(term, SearchPriority.VISIBLE);
+        }
+        assertTrue("A visible search completed early", results.isEmpty());
+        for (int i = 0; i < terms.length; i++) {
+            assertEquals("The search was not dispatched in order", terms[i],
+                    searcher.terms.get(i));
+            searcher.answer(i);
+        }
+        for (String term : terms) {
+            assertTrue("The search did not complete: " + term, results.containsKey(term));
+            assertFalse("The search failed: " + term, results.get(term).isFailed());
+        }
+    }
+
+    @Test
+    public void testCancelledResponseIsStale() {
+        CountingSearchMetrics metrics = new CountingSearchMetrics();
+        SearchInstrumentation.setMetrics(metrics);
+        SearchRequest request = submit("cancelled", SearchPriority.VISIBLE);
+        submit("queued", SearchPriority.VISIBLE);
+        request.cancel();
+        // The searcher responds although the search was cancelled.
+        searcher.answer(0);
+        assertFalse("The cancelled search completed", results.containsKey("cancelled"));
+        assertEquals("The late response was not counted", 1, metrics.getStaleCount());
+        // The cancellation released the slot for the queued search.
+        assertEquals("The queued search was not dispatched", "queued", searcher.terms.get(1));
+        searcher.answer(1);
+        assertTrue("The queued search did not complete", results.containsKey("queued"));
+        assertEquals("A current response was counted", 1, metrics.getStaleCount());
+    }
+
+}
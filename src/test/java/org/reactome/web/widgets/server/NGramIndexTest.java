@@ -0,0 +1,142 @@
+package org.reactome.web.widgets.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.reactome.web.widgets.search.SearchParameters;
+
+/**
+ * Tests the {@link NGramIndex} ranking, cursor paging and concurrent
+ * searches.
+ */
+public class NGramIndexTest {
+
+    private static List<String> keys(IndexResult result) {
+        List<String> keys = new ArrayList<String>();
+        for (SuggestionRecord record : result.getEntries()) {
+            keys.add(record.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * @return records whose titles combine a few words, so that a
+     *      term matches many records at every rank
+     */
+    private static NGramIndex createIndex(int size) {
+        String[] words = {"membrane", "transport", "mitochondrial", "protein", "outer",
+                "kinase", "complex"};
+        List<SuggestionRecord> records = new ArrayList<SuggestionRecord>();
+        for (int i = 0; i < size; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int j = 0, n = i; j < 1 + i % 3; j++, n /= words.length) {
+                if (j > 0) {
+                    title.append(' ');
+                }
+                title.append(words[(n + j) % words.length]);
+            }
+            records.add(new SuggestionRecord("R-" + i, title.toString()));
+        }
+        return new NGramIndex(records);
+    }
+
+    @Test
+    public void testRanking() {
+        List<SuggestionRecord> records = Arrays.asList(
+                new SuggestionRecord("secondary", "Protein",
+                        Collections.singletonList("Membrane"), null),
+                new SuggestionRecord("contains", "Homemade"),
+                new SuggestionRecord("word", "Outer membrane"),
+                new SuggestionRecord("prefix long", "Membrane transport"),
+                new SuggestionRecord("prefix", "Membrane"),
+                new SuggestionRecord("none", "Kinase"),
+                new SuggestionRecord("exact", "Mem"));
+        NGramIndex index = new NGramIndex(records);
+        IndexResult result = index.search(new SearchParameters("mem", 0, 10));
+        assertEquals("The count is incorrect", 6, result.getNumFound());
+        assertEquals("The ranking is incorrect",
+                Arrays.asList("exact", "prefix", "prefix long", "word", "contains", "secondary"),
+                keys(result));
+        assertNull("The last page has a cursor", result.getNextCursor());
+    }
+
+    @Test
+    public void testCursorPaging() {
+        NGramIndex index = createIndex(500);
+        int size = 7;
+        String cursor = null;
+        for (int start = 0; ; start += size) {
+            IndexResult byOffset = index.search(new SearchParameters("mem", start, size));
+            IndexResult byCursor = index.search(new SearchParameters("mem", start, size, cursor));
+            assertEquals("The cursor count differs", byOffset.getNumFound(),
+                    byCursor.getNumFound());
+            assertEquals("The cursor page differs at " + start, keys(byOffset), keys(byCursor));
+            cursor = byCursor.getNextCursor();
+            if (cursor == null) {
+                assertEquals("The paging stopped early", byOffset.getNumFound(),
+                        start + byOffset.getEntries().size());
+                break;
+            }
+        }
+    }
+
+    @Test
+    public void testForeignCursorPagesByOffset() {
+        NGramIndex index = createIndex(100);
+        IndexResult first = index.search(new SearchParameters("pro", 0, 5));
+        assertNotNull("The first page has no cursor", first.getNextCursor());
+        NGramIndex other = createIndex(100);
+        IndexResult byOffset = other.search(new SearchParameters("pro", 5, 5));
+        IndexResult byCursor = other.search(
+                new SearchParameters("pro", 5, 5, first.getNextCursor()));
+        assertEquals("The foreign cursor was not ignored", keys(byOffset), keys(byCursor));
+    }
+
+    @Test
+    public void testConcurrentSearches() throws Exception {
+        final NGramIndex index = createIndex(2000);
+        final String[] terms = {"mem", "trans", "pro", "outer kin", "complex mito", "mem tr"};
+        final List<List<String>> expected = new ArrayList<List<String>>();
+        for (String term : terms) {
+            expected.add(keys(index.search(new SearchParameters(term, 3, 20))));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < 200; i++) {
+                            int which = i % terms.length;
+                            IndexResult result =
+                                    index.search(new SearchParameters(terms[which], 3, 20));
+                            assertEquals("A concurrent search differs", expected.get(which),
+                                    keys(result));
+                        }
+                        return null;
+                    }
+
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package org.reactome.web.widgets.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link SearchServlet} responses with stub requests and
+ * responses.
+ */
+public class SearchServletTest {
+
+    /**
+     * Records the response status, headers and body.
+     */
+    private static class ResponseStub implements InvocationHandler {
+        private int status = HttpServletResponse.SC_OK;
+        private final Map<String, String> headers = new HashMap<String, String>();
+        private final StringWriter body = new StringWriter();
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+            case "sendError":
+            case "setStatus":
+                this.status = (Integer) args[0];
+                return null;
+            case "setHeader":
+                this.headers.put((String) args[0], (String) args[1]);
+                return null;
+            case "getWriter":
+                return new PrintWriter(this.body, true);
+            default:
+                return null;
+            }
+        }
+
+    }
+
+    private final SearchServlet servlet = new SearchServlet(new NGramIndex(Arrays.asList(
+            new SuggestionRecord("R-1", "Membrane transport"),
+            new SuggestionRecord("R-2", "Outer membrane"))));
+
+    private ResponseStub get(final Map<String, String> parameters,
+            final Map<String, String> headers) throws Exception {
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {HttpServletRequest.class},
+                new InvocationHandler() {
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                case "getParameter":
+                    return parameters.get(args[0]);
+                case "getHeader":
+                    return headers.get(args[0]);
+                default:
+                    return null;
+                }
+            }
+
+        });
+        ResponseStub stub = new ResponseStub();
+        HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {HttpServletResponse.class}, stub);
+        this.servlet.doGet(request, response);
+        return stub;
+    }
+
+    private static Map<String, String> map(String... pairs) {
+        Map<String, String> map = new HashMap<String, String>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            map.put(pairs[i], pairs[i + 1]);
+        }
+        return map;
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        ResponseStub response = get(map("term", "mem"), map());
+        assertEquals("The status is incorrect", HttpServletResponse.SC_OK, response.status);
+        assertTrue("The body is incorrect: " + response.body,
+                response.body.toString().startsWith("{\"numFound\":2"));
+        assertNotNull("The response has no ETag", response.headers.get("ETag"));
+    }
+
+    @Test
+    public void testMissingTermIsBadRequest() throws Exception {
+        assertEquals("A missing term was accepted", HttpServletResponse.SC_BAD_REQUEST,
+                get(map(), map()).status);
+        assertEquals("A blank term was accepted", HttpServletResponse.SC_BAD_REQUEST,
+                get(map("term", " "), map()).status);
+    }
+
+    @Test
+    public void testInvalidStartIsBadRequest() throws Exception {
+        assertEquals("A non-integer start was accepted", HttpServletResponse.SC_BAD_REQUEST,
+                get(map("term", "mem", "start", "x"), map()).status);
+        assertEquals("A negative start was accepted", HttpServletResponse.SC_BAD_REQUEST,
+                get(map("term", "mem", "start", "-1"), map()).status);
+    }
+
+    @Test
+    public void testMatchingETagIsNotModified() throws Exception {
+        String etag = get(map("term", "mem"), map()).headers.get("ETag");
+        ResponseStub revalidated = get(map("term", "mem"), map("If-None-Match", etag));
+        assertEquals("The matching ETag was not honoured",
+                HttpServletResponse.SC_NOT_MODIFIED, revalidated.status);
+        assertEquals("The 304 response has a body", "", revalidated.body.toString());
+        ResponseStub other = get(map("term", "outer"), map("If-None-Match", etag));
+        assertEquals("Another body was not modified", HttpServletResponse.SC_OK, other.status);
+        assertNotEquals("Another body has the same ETag", etag, other.headers.get("ETag"));
+    }
+
+}